@@ -0,0 +1,45 @@
+package com.documentsearch.gateway.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Every gateway instance gets its own server-named, auto-delete queue bound to the status
+ * events, so each instance sees all events and pushes them to the clients connected to it.
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    public static final String DOCUMENT_EVENTS_EXCHANGE = "document.events";
+    public static final String DOCUMENT_STATUS_ROUTING_KEY = "document.status";
+
+    @Bean
+    public TopicExchange documentEventsExchange() {
+        return new TopicExchange(DOCUMENT_EVENTS_EXCHANGE);
+    }
+
+    @Bean
+    public Queue documentStatusQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding documentStatusBinding(Queue documentStatusQueue, TopicExchange documentEventsExchange) {
+        return BindingBuilder
+                .bind(documentStatusQueue)
+                .to(documentEventsExchange)
+                .with(DOCUMENT_STATUS_ROUTING_KEY);
+    }
+
+    @Bean
+    public MessageConverter messageConverter() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+}
@@ -0,0 +1,57 @@
+package com.documentsearch.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-tenant admission control settings.
+ *
+ * ratelimit.tiers.<tier>.search / .upload define the limits of each tier, and
+ * ratelimit.tenant-tiers.<tenantId>=<tier> assigns tenants to tiers. Tenants without
+ * an explicit assignment use ratelimit.default-tier.
+ */
+@Component
+@ConfigurationProperties(prefix = "ratelimit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private String defaultTier = "standard";
+    private Map<String, Tier> tiers = new HashMap<>();
+    private Map<String, String> tenantTiers = new HashMap<>();
+
+    public Tier tierFor(String tenantId) {
+        String tierName = tenantTiers.getOrDefault(tenantId, defaultTier);
+        Tier tier = tiers.get(tierName);
+        if (tier == null) {
+            tier = tiers.getOrDefault(defaultTier, new Tier());
+        }
+        return tier;
+    }
+
+    @Data
+    public static class Tier {
+        private RouteLimit search = new RouteLimit(20, 40, 10);
+        private RouteLimit upload = new RouteLimit(2, 5, 2);
+    }
+
+    @Data
+    public static class RouteLimit {
+        private double requestsPerSecond;
+        private int burst;
+        private int maxConcurrent;
+
+        public RouteLimit() {
+        }
+
+        public RouteLimit(double requestsPerSecond, int burst, int maxConcurrent) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+}
@@ -1,15 +1,127 @@
 package com.documentsearch.gateway.config;
 
+import com.documentsearch.gateway.service.BackendInstance;
+import com.documentsearch.gateway.service.BackendPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One BackendPool per backend service. Each configured instance gets a long-lived WebClient,
+ * and the instances of a service share one keep-alive connection pool so requests reuse
+ * established connections.
+ */
 @Configuration
 public class WebClientConfig {
 
+    // Comma-separated instance URLs; falls back to the single-instance .url property
+    @Value("${backend.document-management-service.urls:${backend.document-management-service.url}}")
+    private String[] documentManagementServiceUrls;
+
+    @Value("${backend.document-search-service.urls:${backend.document-search-service.url:http://document-search-service:8082}}")
+    private String[] documentSearchServiceUrls;
+
+    @Value("${backend.http.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${backend.http.pending-acquire-max-count:1000}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${backend.http.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${backend.http.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${backend.http.max-life-time-ms:300000}")
+    private long maxLifeTimeMs;
+
+    @Value("${backend.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${backend.http.response-timeout-ms:60000}")
+    private long responseTimeoutMs;
+
+    @Value("${backend.circuit-breaker.failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${backend.circuit-breaker.open-ms:10000}")
+    private long circuitOpenMs;
+
+    @Value("${backend.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${backend.hedge.min-delay-ms:20}")
+    private long minHedgeDelayMs;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider documentManagementConnectionProvider() {
+        return connectionProvider("document-management-service");
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider documentSearchConnectionProvider() {
+        return connectionProvider("document-search-service");
+    }
+
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public BackendPool documentManagementBackend(WebClient.Builder webClientBuilder,
+                                                 ConnectionProvider documentManagementConnectionProvider,
+                                                 MeterRegistry meterRegistry) {
+        return backendPool("document-management-service", documentManagementServiceUrls,
+                webClientBuilder, documentManagementConnectionProvider, meterRegistry);
+    }
+
+    @Bean
+    public BackendPool documentSearchBackend(WebClient.Builder webClientBuilder,
+                                             ConnectionProvider documentSearchConnectionProvider,
+                                             MeterRegistry meterRegistry) {
+        return backendPool("document-search-service", documentSearchServiceUrls,
+                webClientBuilder, documentSearchConnectionProvider, meterRegistry);
     }
-}
 
+    private BackendPool backendPool(String name, String[] urls, WebClient.Builder webClientBuilder,
+                                    ConnectionProvider provider, MeterRegistry meterRegistry) {
+        List<BackendInstance> instances = Arrays.stream(urls)
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> new BackendInstance(url, webClient(webClientBuilder.clone(), provider, url),
+                        circuitFailureThreshold, circuitOpenMs))
+                .toList();
+        return new BackendPool(name, instances, hedgePercentile, minHedgeDelayMs, meterRegistry);
+    }
+
+    private ConnectionProvider connectionProvider(String name) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(maxIdleTimeMs))
+                .build();
+    }
+
+    private WebClient webClient(WebClient.Builder webClientBuilder, ConnectionProvider provider, String baseUrl) {
+        HttpClient httpClient = HttpClient.create(provider)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
+        return webClientBuilder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
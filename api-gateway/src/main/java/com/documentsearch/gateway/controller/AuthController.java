@@ -7,12 +7,14 @@ import com.documentsearch.gateway.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api")
@@ -27,6 +29,8 @@ public class AuthController {
         try {
             AuthResponse response = authService.signup(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (RejectedExecutionException e) {
+            return hashingBusy();
         } catch (RuntimeException e) {
             log.error("Signup failed", e);
             Map<String, String> error = new HashMap<>();
@@ -40,6 +44,8 @@ public class AuthController {
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            return hashingBusy();
         } catch (RuntimeException e) {
             log.error("Login failed", e);
             Map<String, String> error = new HashMap<>();
@@ -48,6 +54,17 @@ public class AuthController {
         }
     }
 
+    /**
+     * Password hashing capacity is exhausted; ask the client to back off
+     */
+    private ResponseEntity<?> hashingBusy() {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Authentication service is busy, please retry");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         Map<String, String> response = new HashMap<>();
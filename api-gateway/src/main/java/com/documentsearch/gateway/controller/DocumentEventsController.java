@@ -0,0 +1,87 @@
+package com.documentsearch.gateway.controller;
+
+import com.documentsearch.gateway.dto.DocumentStatusEvent;
+import com.documentsearch.gateway.service.DocumentStatusBroadcaster;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentEventsController {
+
+    private final DocumentStatusBroadcaster documentStatusBroadcaster;
+
+    @Value("${events.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+
+    // Streams are closed after this long; clients reconnect and are re-authenticated
+    @Value("${events.max-stream-duration-ms:1800000}")
+    private long maxStreamDurationMs;
+
+    @Value("${events.reconnect-delay-ms:3000}")
+    private long reconnectDelayMs;
+
+    /**
+     * Status changes of the caller's documents as server-sent events
+     * GET /api/documents/events
+     *
+     * Each event is named "status" and carries documentId, status and occurredAt. Comments are
+     * sent as heartbeats so idle connections are not dropped by intermediaries.
+     */
+    @GetMapping(value = "/api/documents/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamStatusEvents(HttpServletRequest request) {
+        String tenantId = (String) request.getAttribute("tenantId");
+        String username = (String) request.getAttribute("username");
+
+        Flux<DocumentStatusEvent> statusEvents;
+        try {
+            statusEvents = documentStatusBroadcaster.subscribe(tenantId);
+        } catch (IllegalStateException e) {
+            log.warn("[API Gateway] Rejected event subscription of user '{}': {}", username, e.getMessage());
+            Map<String, Object> error = new HashMap<>();
+            error.put("status", 429);
+            error.put("error", "Too Many Requests");
+            error.put("message", e.getMessage());
+            error.put("timestamp", LocalDateTime.now().toString());
+            error.put("path", "/api/documents/events");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(error);
+        }
+
+        log.info("[API Gateway] User '{}' from tenant '{}' subscribed to document events", username, tenantId);
+
+        // The opening comment commits the response headers right away and sets the reconnect delay
+        ServerSentEvent<DocumentStatusEvent> opening = ServerSentEvent.<DocumentStatusEvent>builder()
+                .comment("subscribed")
+                .retry(Duration.ofMillis(reconnectDelayMs))
+                .build();
+        Flux<ServerSentEvent<DocumentStatusEvent>> events = statusEvents
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(event.getDocumentId() + "-" + event.getStatus())
+                        .event("status")
+                        .build());
+        Flux<ServerSentEvent<DocumentStatusEvent>> heartbeats = Flux.interval(Duration.ofMillis(heartbeatIntervalMs))
+                .map(tick -> ServerSentEvent.<DocumentStatusEvent>builder().comment("heartbeat").build());
+
+        Flux<ServerSentEvent<DocumentStatusEvent>> stream = Flux.merge(events, heartbeats)
+                .startWith(opening)
+                .take(Duration.ofMillis(maxStreamDurationMs));
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(stream);
+    }
+}
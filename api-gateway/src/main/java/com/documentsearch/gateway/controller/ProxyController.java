@@ -1,140 +1,448 @@
 package com.documentsearch.gateway.controller;
 
+import com.documentsearch.gateway.security.UploadTokenProvider;
+import com.documentsearch.gateway.service.BackendPool;
+import com.documentsearch.gateway.service.BackendUnavailableException;
+import com.documentsearch.gateway.service.ProxyResponseWriter;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.*;
-import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
-@RequiredArgsConstructor
 @Slf4j
 public class ProxyController {
 
-    @Value("${backend.document-management-service.url}")
-    private String documentManagementServiceUrl;
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-SHA256";
 
-    @Value("${backend.document-search-service.url:http://document-search-service:8082}")
-    private String documentSearchServiceUrl;
+    private final BackendPool documentManagementBackend;
+    private final BackendPool documentSearchBackend;
+    private final ProxyResponseWriter responseWriter;
+    private final UploadTokenProvider uploadTokenProvider;
 
-    private final WebClient.Builder webClientBuilder;
+    @Value("${proxy.upload.max-request-size:60MB}")
+    private DataSize maxUploadSize;
+
+    @Value("${proxy.upload.max-batch-request-size:500MB}")
+    private DataSize maxBatchUploadSize;
+
+    // Deadlines for the backend response headers; uploads include the time to send the file
+    @Value("${proxy.upload.deadline-ms:120000}")
+    private long uploadDeadlineMs;
+
+    @Value("${proxy.search.deadline-ms:5000}")
+    private long searchDeadlineMs;
+
+    @Value("${proxy.download.deadline-ms:10000}")
+    private long downloadDeadlineMs;
+
+    @Value("${proxy.list.deadline-ms:5000}")
+    private long listDeadlineMs;
+
+    public ProxyController(@Qualifier("documentManagementBackend") BackendPool documentManagementBackend,
+                           @Qualifier("documentSearchBackend") BackendPool documentSearchBackend,
+                           ProxyResponseWriter responseWriter,
+                           UploadTokenProvider uploadTokenProvider) {
+        this.documentManagementBackend = documentManagementBackend;
+        this.documentSearchBackend = documentSearchBackend;
+        this.responseWriter = responseWriter;
+        this.uploadTokenProvider = uploadTokenProvider;
+    }
 
     /**
      * Upload document - extracts tenantId from JWT token
      * POST /api/documents
+     *
+     * The multipart body is streamed to document-management-service as it arrives instead of
+     * being spooled by a multipart resolver, so the file itself is never materialized on the
+     * gateway. The backend's POST /documents may be exposed to clients and accepts only upload
+     * tokens, so the gateway mints one for the tenant from the JWT; the backend rejects bodies
+     * that carry a tenantId part.
      */
     @PostMapping("/api/documents")
-    public ResponseEntity<?> uploadDocument(
-            @RequestParam(value = "file", required = false) MultipartFile file,
-            HttpServletRequest request) {
+    public Mono<Void> uploadDocument(HttpServletRequest request, HttpServletResponse response) {
+        return forwardMultipartUpload(request, response, "/documents", "/api/documents", maxUploadSize, true);
+    }
+
+    /**
+     * Batch upload - several "files" parts in one multipart request
+     * POST /api/documents/batch
+     *
+     * Streamed the same way as single uploads; the backend stores the files and publishes
+     * their index messages together. The batch endpoint is internal-only and takes the tenant
+     * from the tenantId query parameter.
+     */
+    @PostMapping("/api/documents/batch")
+    public Mono<Void> uploadDocumentBatch(HttpServletRequest request, HttpServletResponse response) {
+        return forwardMultipartUpload(request, response, "/documents/batch", "/api/documents/batch",
+                maxBatchUploadSize, false);
+    }
 
+    /**
+     * List the caller's documents, newest first, with keyset pagination
+     * GET /api/documents?status=&after=&limit=
+     */
+    @GetMapping("/api/documents")
+    public Mono<Void> listDocuments(@RequestParam(required = false) String status,
+                                    @RequestParam(required = false) String after,
+                                    @RequestParam(required = false) Integer limit,
+                                    HttpServletRequest request, HttpServletResponse response) {
         String tenantId = (String) request.getAttribute("tenantId");
         String username = (String) request.getAttribute("username");
 
-        log.info("[API Gateway] User '{}' from tenant '{}' uploading document", username, tenantId);
+        return documentManagementBackend.exchange(client -> client.get()
+                        .uri(uriBuilder -> uriBuilder
+                                .path("/documents")
+                                .queryParam("tenantId", tenantId)
+                                .queryParamIfPresent("status", Optional.ofNullable(status))
+                                .queryParamIfPresent("after", Optional.ofNullable(after))
+                                .queryParamIfPresent("limit", Optional.ofNullable(limit))
+                                .build())
+                        .headers(headers -> responseWriter.copyRequestHeaders(request, headers,
+                                HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)),
+                        Duration.ofMillis(listDeadlineMs))
+                .flatMap(entity -> responseWriter.write(entity, response))
+                .onErrorResume(e -> handleBackendError(e, response, username,
+                        "Failed to list documents", "/api/documents"));
+    }
 
-        try {
-            // Validate file on gateway level
-            if (file == null || file.isEmpty()) {
-                log.warn("[API Gateway] Empty file upload attempt by user: {}", username);
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(createErrorResponse(400, "Bad Request",
-                              "File is required and cannot be empty", "/api/documents"));
-            }
+    /**
+     * Status of one of the caller's documents
+     * GET /api/documents/{documentId}
+     */
+    @GetMapping("/api/documents/{documentId}")
+    public Mono<Void> getDocument(@PathVariable Long documentId,
+                                  HttpServletRequest request, HttpServletResponse response) {
+        String tenantId = (String) request.getAttribute("tenantId");
+        String username = (String) request.getAttribute("username");
+
+        return documentManagementBackend.exchange(client -> client.get()
+                        .uri(uriBuilder -> uriBuilder
+                                .path("/documents/{documentId}")
+                                .queryParam("tenantId", tenantId)
+                                .build(documentId))
+                        .headers(headers -> responseWriter.copyRequestHeaders(request, headers,
+                                HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)),
+                        Duration.ofMillis(listDeadlineMs))
+                .flatMap(entity -> responseWriter.write(entity, response))
+                .onErrorResume(e -> handleBackendError(e, response, username,
+                        "Failed to get document", "/api/documents/" + documentId));
+    }
+
+    /**
+     * Download a stored original - only documents of the caller's tenant are visible
+     * GET /api/documents/{documentId}/content
+     *
+     * Range and conditional headers are forwarded and the backend's 200/206/304/416 response,
+     * including ETag, Content-Range and any Content-Encoding, is streamed back unchanged.
+     */
+    @GetMapping("/api/documents/{documentId}/content")
+    public Mono<Void> downloadDocument(@PathVariable Long documentId,
+                                       HttpServletRequest request, HttpServletResponse response) {
+        String tenantId = (String) request.getAttribute("tenantId");
+        String username = (String) request.getAttribute("username");
+        String path = "/api/documents/" + documentId + "/content";
+
+        log.info("[API Gateway] User '{}' from tenant '{}' downloading document {}", username, tenantId, documentId);
+
+        return documentManagementBackend.exchange(client -> client.get()
+                        .uri(uriBuilder -> uriBuilder
+                                .path("/documents/{documentId}/content")
+                                .queryParam("tenantId", tenantId)
+                                .build(documentId))
+                        .headers(headers -> responseWriter.copyRequestHeaders(request, headers,
+                                HttpHeaders.RANGE, HttpHeaders.IF_RANGE, HttpHeaders.IF_NONE_MATCH,
+                                HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.ACCEPT_ENCODING)),
+                        Duration.ofMillis(downloadDeadlineMs))
+                .flatMap(entity -> responseWriter.write(entity, response))
+                .onErrorResume(e -> handleBackendError(e, response, username,
+                        "Failed to download document", path));
+    }
+
+    /**
+     * Stream a multipart upload to document-management-service with the tenant from the JWT,
+     * carried by an upload token or, for internal-only endpoints, the tenantId query parameter
+     */
+    private Mono<Void> forwardMultipartUpload(HttpServletRequest request, HttpServletResponse response,
+                                              String backendPath, String path, DataSize maxSize,
+                                              boolean withUploadToken) {
+
+        String tenantId = (String) request.getAttribute("tenantId");
+        String username = (String) request.getAttribute("username");
+
+        log.info("[API Gateway] User '{}' from tenant '{}' uploading to {}", username, tenantId, path);
 
-            log.info("[API Gateway] Forwarding document '{}' ({} bytes) to document-management-service",
-                    file.getOriginalFilename(), file.getSize());
-
-            // Build multipart request
-            MultipartBodyBuilder builder = new MultipartBodyBuilder();
-            builder.part("file", file.getResource());
-            builder.part("tenantId", tenantId);
-
-            // Forward to document-management-service
-            WebClient webClient = webClientBuilder.baseUrl(documentManagementServiceUrl).build();
-
-            String response = webClient.post()
-                    .uri("/documents")
-                    .contentType(MediaType.MULTIPART_FORM_DATA)
-                    .body(BodyInserters.fromMultipartData(builder.build()))
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            log.info("[API Gateway] Document upload successful for user: {}", username);
-            return ResponseEntity.accepted().body(response);
-
-        } catch (WebClientResponseException e) {
-            log.error("[API Gateway] Backend service returned error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
-            return ResponseEntity.status(e.getStatusCode())
-                    .body(e.getResponseBodyAsString());
-        } catch (Exception e) {
-            log.error("[API Gateway] Error uploading document for user {}: {}", username, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse(500, "Internal Server Error",
-                          "Failed to upload document: " + e.getMessage(), "/api/documents"));
+        // Validate request on gateway level; file contents are validated by the backend
+        String boundary = multipartBoundary(request.getContentType());
+        long contentLength = request.getContentLengthLong();
+        if (boundary == null || contentLength == 0) {
+            log.warn("[API Gateway] Empty file upload attempt by user: {}", username);
+            return responseWriter.writeJson(response, HttpStatus.BAD_REQUEST,
+                    createErrorResponse(400, "Bad Request",
+                          "File is required and cannot be empty", path));
         }
+
+        long maxUploadBytes = maxSize.toBytes();
+        if (contentLength > maxUploadBytes) {
+            log.warn("[API Gateway] Upload of {} bytes by user {} exceeds limit of {} bytes",
+                    contentLength, username, maxUploadBytes);
+            return payloadTooLarge(response, maxSize, path);
+        }
+
+        log.info("[API Gateway] Streaming upload ({} bytes) to document-management-service",
+                contentLength >= 0 ? contentLength : "unknown");
+
+        Flux<DataBuffer> body = streamRequestBody(request, maxUploadBytes);
+        String uploadToken = withUploadToken
+                ? uploadTokenProvider.generateToken(username, tenantId, maxUploadBytes).token()
+                : null;
+
+        // Forward to document-management-service and relay its response as-is.
+        // The body can only be read once, so uploads are never retried or hedged.
+        return documentManagementBackend.exchange(client -> client.post()
+                        .uri(uriBuilder -> uploadToken != null
+                                ? uriBuilder.path(backendPath).build()
+                                : uriBuilder.path(backendPath).queryParam("tenantId", tenantId).build())
+                        .headers(headers -> {
+                            if (uploadToken != null) {
+                                headers.setBearerAuth(uploadToken);
+                            }
+                            headers.set(HttpHeaders.CONTENT_TYPE, request.getContentType());
+                            if (contentLength > 0) {
+                                headers.setContentLength(contentLength);
+                            }
+                            responseWriter.copyRequestHeaders(request, headers, HttpHeaders.ACCEPT_ENCODING);
+                        })
+                        .body(BodyInserters.fromDataBuffers(body)), Duration.ofMillis(uploadDeadlineMs))
+                .flatMap(entity -> responseWriter.write(entity, response))
+                .doOnSuccess(v -> log.info("[API Gateway] Upload to {} relayed for user: {}", path, username))
+                .onErrorResume(e -> handleBackendError(e, response, username,
+                        "Failed to upload document", path));
+    }
+
+    /**
+     * Chunked upload API - relayed to document-management-service with the tenant from the JWT.
+     * POST /api/documents/uploads                          start a session
+     * PUT  /api/documents/uploads/{uploadId}/chunks/{n}    send chunk n (X-Chunk-SHA256 header)
+     * GET  /api/documents/uploads/{uploadId}               session state and missing chunks
+     * POST /api/documents/uploads/{uploadId}/commit        create the document
+     */
+    @PostMapping("/api/documents/uploads")
+    public Mono<Void> initiateChunkedUpload(HttpServletRequest request, HttpServletResponse response) {
+        return forwardChunkedUploadRequest(HttpMethod.POST, "/documents/uploads", request, response);
+    }
+
+    @PutMapping("/api/documents/uploads/{uploadId}/chunks/{chunkIndex}")
+    public Mono<Void> uploadChunk(@PathVariable String uploadId, @PathVariable int chunkIndex,
+                                  HttpServletRequest request, HttpServletResponse response) {
+        return forwardChunkedUploadRequest(HttpMethod.PUT, "/documents/uploads/{uploadId}/chunks/{chunkIndex}",
+                request, response, uploadId, chunkIndex);
+    }
+
+    @GetMapping("/api/documents/uploads/{uploadId}")
+    public Mono<Void> getChunkedUpload(@PathVariable String uploadId,
+                                       HttpServletRequest request, HttpServletResponse response) {
+        return forwardChunkedUploadRequest(HttpMethod.GET, "/documents/uploads/{uploadId}",
+                request, response, uploadId);
+    }
+
+    @PostMapping("/api/documents/uploads/{uploadId}/commit")
+    public Mono<Void> commitChunkedUpload(@PathVariable String uploadId,
+                                          HttpServletRequest request, HttpServletResponse response) {
+        return forwardChunkedUploadRequest(HttpMethod.POST, "/documents/uploads/{uploadId}/commit",
+                request, response, uploadId);
+    }
+
+    /**
+     * Path variables are expanded into the backend path template, so they are always encoded as one segment
+     */
+    private Mono<Void> forwardChunkedUploadRequest(HttpMethod method, String backendPathTemplate,
+                                                   HttpServletRequest request, HttpServletResponse response,
+                                                   Object... pathVariables) {
+        String tenantId = (String) request.getAttribute("tenantId");
+        String username = (String) request.getAttribute("username");
+        String path = request.getRequestURI();
+
+        log.debug("[API Gateway] User '{}' from tenant '{}' {} {}", username, tenantId, method, path);
+
+        long contentLength = request.getContentLengthLong();
+        long maxUploadBytes = maxUploadSize.toBytes();
+        if (contentLength > maxUploadBytes) {
+            return payloadTooLarge(response, maxUploadSize, path);
+        }
+
+        return documentManagementBackend.exchange(client -> {
+                    WebClient.RequestBodySpec spec = client.method(method)
+                            .uri(uriBuilder -> uriBuilder.path(backendPathTemplate)
+                                    .queryParam("tenantId", tenantId)
+                                    .build(pathVariables))
+                            .headers(headers -> {
+                                if (request.getContentType() != null) {
+                                    headers.set(HttpHeaders.CONTENT_TYPE, request.getContentType());
+                                }
+                                if (contentLength >= 0) {
+                                    headers.setContentLength(contentLength);
+                                }
+                                responseWriter.copyRequestHeaders(request, headers,
+                                        HttpHeaders.ACCEPT_ENCODING, CHUNK_CHECKSUM_HEADER);
+                            });
+                    return contentLength == 0 || method == HttpMethod.GET
+                            ? spec
+                            : spec.body(BodyInserters.fromDataBuffers(streamRequestBody(request, maxUploadBytes)));
+                }, Duration.ofMillis(uploadDeadlineMs))
+                .flatMap(entity -> responseWriter.write(entity, response))
+                .onErrorResume(e -> handleBackendError(e, response, username,
+                        "Failed to process chunked upload request", path));
     }
 
     /**
      * Search documents - extracts tenantId from JWT token
      * GET /api/search
+     *
+     * The backend call runs asynchronously and its response bytes, including any
+     * content-encoding, are streamed back without being decoded on the gateway.
+     * Search is idempotent, so a slow call is hedged to a second instance.
      */
     @GetMapping("/api/search")
-    public ResponseEntity<?> searchDocuments(
+    public Mono<Void> searchDocuments(
             @RequestParam(required = false) String q,
-            HttpServletRequest request) {
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            HttpServletRequest request,
+            HttpServletResponse response) {
 
         String tenantId = (String) request.getAttribute("tenantId");
         String username = (String) request.getAttribute("username");
 
         log.info("[API Gateway] User '{}' from tenant '{}' searching for: '{}'", username, tenantId, q);
 
+        // Validate query on gateway level
+        if (q == null || q.trim().isEmpty()) {
+            log.warn("[API Gateway] Empty search query from user: {}", username);
+            return responseWriter.writeJson(response, HttpStatus.BAD_REQUEST,
+                    createErrorResponse(400, "Bad Request",
+                          "Search query 'q' is required and cannot be empty", "/api/search"));
+        }
+
+        log.info("[API Gateway] Forwarding search request to document-search-service");
+
+        return documentSearchBackend.exchangeHedged(client -> client.get()
+                        .uri(uriBuilder -> uriBuilder
+                                .path("/api/search")
+                                .queryParam("q", q)
+                                .queryParam("tenant", tenantId)
+                                .queryParamIfPresent("page", Optional.ofNullable(page))
+                                .queryParamIfPresent("size", Optional.ofNullable(size))
+                                .build())
+                        .headers(headers -> responseWriter.copyRequestHeaders(request, headers,
+                                HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)),
+                        Duration.ofMillis(searchDeadlineMs))
+                .flatMap(entity -> responseWriter.write(entity, response))
+                .doOnSuccess(v -> log.info("[API Gateway] Search completed successfully for user: {}", username))
+                .onErrorResume(e -> handleBackendError(e, response, username,
+                        "Failed to perform search", "/api/search"));
+    }
+
+    /**
+     * Map a failed backend call to the response sent to the client.
+     * Backend error statuses are relayed as-is; this only handles calls that produced no response.
+     */
+    private Mono<Void> handleBackendError(Throwable e, HttpServletResponse response, String username,
+                                          String failureMessage, String path) {
+        if (response.isCommitted()) {
+            // Part of the backend response was already sent; the connection can only be aborted
+            log.error("[API Gateway] {} for user {} after response was committed: {}",
+                    failureMessage, username, e.getMessage());
+            return Mono.error(e);
+        }
+        if (e instanceof DataBufferLimitException) {
+            log.warn("[API Gateway] Upload by user {} rejected: {}", username, e.getMessage());
+            DataSize limit = path.equals("/api/documents/batch") ? maxBatchUploadSize : maxUploadSize;
+            return payloadTooLarge(response, limit, path);
+        }
+        if (e instanceof BackendUnavailableException) {
+            log.warn("[API Gateway] {} for user {}: {}", failureMessage, username, e.getMessage());
+            return responseWriter.writeJson(response, HttpStatus.SERVICE_UNAVAILABLE,
+                    createErrorResponse(503, "Service Unavailable", failureMessage + ": " + e.getMessage(), path));
+        }
+        if (e instanceof TimeoutException) {
+            log.warn("[API Gateway] {} for user {}: backend did not respond in time", failureMessage, username);
+            return responseWriter.writeJson(response, HttpStatus.GATEWAY_TIMEOUT,
+                    createErrorResponse(504, "Gateway Timeout", failureMessage + ": backend did not respond in time", path));
+        }
+        log.error("[API Gateway] {} for user {}: {}", failureMessage, username, e.getMessage(), e);
+        return responseWriter.writeJson(response, HttpStatus.INTERNAL_SERVER_ERROR,
+                createErrorResponse(500, "Internal Server Error",
+                      failureMessage + ": " + e.getMessage(), path));
+    }
+
+    private Mono<Void> payloadTooLarge(HttpServletResponse response, DataSize maxSize, String path) {
+        return responseWriter.writeJson(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                createErrorResponse(413, "Payload Too Large",
+                      "Upload exceeds maximum allowed size of " + maxSize.toMegabytes() + "MB",
+                      path));
+    }
+
+    /**
+     * Stream the client request body, failing with DataBufferLimitException past maxBytes.
+     * The servlet input stream is blocking, so it is read on boundedElastic as the backend
+     * connection requests more data; nothing is read ahead of what the backend can accept.
+     */
+    private Flux<DataBuffer> streamRequestBody(HttpServletRequest request, long maxBytes) {
+        AtomicLong bytesRead = new AtomicLong();
+        return DataBufferUtils.readInputStream(
+                        request::getInputStream, DefaultDataBufferFactory.sharedInstance, UPLOAD_BUFFER_SIZE)
+                .doOnNext(buffer -> {
+                    if (bytesRead.addAndGet(buffer.readableByteCount()) > maxBytes) {
+                        DataBufferUtils.release(buffer);
+                        throw new DataBufferLimitException("Upload exceeds limit of " + maxBytes + " bytes");
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Extract the boundary of a multipart/form-data content type, or null if it is not one
+     */
+    private String multipartBoundary(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
         try {
-            // Validate query on gateway level
-            if (q == null || q.trim().isEmpty()) {
-                log.warn("[API Gateway] Empty search query from user: {}", username);
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(createErrorResponse(400, "Bad Request",
-                              "Search query 'q' is required and cannot be empty", "/api/search"));
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (!MediaType.MULTIPART_FORM_DATA.includes(mediaType)) {
+                return null;
             }
-
-            log.info("[API Gateway] Forwarding search request to document-search-service");
-
-            WebClient webClient = webClientBuilder.baseUrl(documentSearchServiceUrl).build();
-
-            String response = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/api/search")
-                            .queryParam("q", q)
-                            .queryParam("tenant", tenantId)
-                            .build())
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            log.info("[API Gateway] Search completed successfully for user: {}", username);
-            return ResponseEntity.ok(response);
-
-        } catch (WebClientResponseException e) {
-            log.error("[API Gateway] Backend service returned error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
-            return ResponseEntity.status(e.getStatusCode())
-                    .body(e.getResponseBodyAsString());
-        } catch (Exception e) {
-            log.error("[API Gateway] Error searching documents for user {}: {}", username, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse(500, "Internal Server Error",
-                          "Failed to perform search: " + e.getMessage(), "/api/search"));
+            String boundary = mediaType.getParameter("boundary");
+            if (boundary != null && boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+                boundary = boundary.substring(1, boundary.length() - 1);
+            }
+            return StringUtils.hasText(boundary) ? boundary : null;
+        } catch (InvalidMediaTypeException e) {
+            return null;
         }
     }
 
@@ -0,0 +1,61 @@
+package com.documentsearch.gateway.controller;
+
+import com.documentsearch.gateway.dto.UploadTokenRequest;
+import com.documentsearch.gateway.dto.UploadTokenResponse;
+import com.documentsearch.gateway.security.UploadTokenProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class UploadTokenController {
+
+    // Allowance for the multipart framing around the file
+    private static final long MULTIPART_OVERHEAD_BYTES = 64 * 1024;
+
+    private final UploadTokenProvider uploadTokenProvider;
+
+    @Value("${upload-token.max-size:50MB}")
+    private DataSize maxUploadSize;
+
+    // Where clients send the multipart upload, i.e. POST /documents of document-management-service
+    @Value("${upload-token.upload-url}")
+    private String uploadUrl;
+
+    /**
+     * Issue a short-lived token for uploading one document directly to document-management-service
+     * POST /api/documents/upload-tokens
+     *
+     * The upload itself does not pass through the gateway: the client posts the same multipart
+     * body as for /api/documents to uploadUrl with "Authorization: Bearer <token>".
+     */
+    @PostMapping("/api/documents/upload-tokens")
+    public ResponseEntity<UploadTokenResponse> issueUploadToken(
+            @Valid @RequestBody(required = false) UploadTokenRequest body,
+            HttpServletRequest request) {
+        String tenantId = (String) request.getAttribute("tenantId");
+        String username = (String) request.getAttribute("username");
+
+        long maxSize = maxUploadSize.toBytes();
+        if (body != null && body.getFileSize() != null) {
+            maxSize = Math.min(maxSize, body.getFileSize() + MULTIPART_OVERHEAD_BYTES);
+        }
+
+        UploadTokenProvider.IssuedUploadToken issued = uploadTokenProvider.generateToken(username, tenantId, maxSize);
+        log.info("[API Gateway] Issued upload token to user '{}' from tenant '{}' for up to {} bytes",
+                username, tenantId, maxSize);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new UploadTokenResponse(issued.token(), uploadUrl, maxSize, issued.expiresAt()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.documentsearch.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStatusEvent {
+    private Long documentId;
+    private String tenantId;
+    private String status; // PROCESSING, INDEXED, FAILED
+    private LocalDateTime occurredAt;
+}
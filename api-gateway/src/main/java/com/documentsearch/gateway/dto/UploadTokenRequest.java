@@ -0,0 +1,14 @@
+package com.documentsearch.gateway.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadTokenRequest {
+    @Positive
+    private Long fileSize; // optional; the token is limited to this file size when given
+}
@@ -0,0 +1,17 @@
+package com.documentsearch.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadTokenResponse {
+    private String token;
+    private String uploadUrl;
+    private Long maxSize; // largest accepted request body in bytes
+    private Instant expiresAt;
+}
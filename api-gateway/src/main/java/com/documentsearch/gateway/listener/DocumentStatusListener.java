@@ -0,0 +1,25 @@
+package com.documentsearch.gateway.listener;
+
+import com.documentsearch.gateway.dto.DocumentStatusEvent;
+import com.documentsearch.gateway.service.DocumentStatusBroadcaster;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentStatusListener {
+
+    private final DocumentStatusBroadcaster documentStatusBroadcaster;
+
+    @RabbitListener(queues = "#{documentStatusQueue.name}")
+    public void handleDocumentStatus(DocumentStatusEvent event) {
+        if (event.getTenantId() == null) {
+            log.warn("Dropping status event without tenant for document ID: {}", event.getDocumentId());
+            return;
+        }
+        documentStatusBroadcaster.publish(event);
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -31,10 +32,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String username = jwtTokenProvider.getUsernameFromToken(jwt);
-                String tenantId = jwtTokenProvider.getTenantIdFromToken(jwt);
-                String role = jwtTokenProvider.getRoleFromToken(jwt);
+            Optional<VerifiedToken> verified = StringUtils.hasText(jwt)
+                    ? jwtTokenProvider.verifyToken(jwt)
+                    : Optional.empty();
+
+            if (verified.isPresent()) {
+                String username = verified.get().getUsername();
+                String tenantId = verified.get().getTenantId();
+                String role = verified.get().getRole();
 
                 // Create authentication token
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
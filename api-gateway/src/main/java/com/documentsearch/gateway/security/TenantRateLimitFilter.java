@@ -0,0 +1,137 @@
+package com.documentsearch.gateway.security;
+
+import com.documentsearch.gateway.service.TenantRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Applies per-tenant admission control to search and upload requests.
+ * Runs after JwtAuthenticationFilter so the tenant is known; rejected requests get an
+ * immediate 429 with Retry-After and never reach a backend.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TenantRateLimitFilter extends OncePerRequestFilter {
+
+    private final TenantRateLimiter tenantRateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String tenantId = (String) request.getAttribute("tenantId");
+        TenantRateLimiter.Route route = routeFor(request);
+
+        // Unauthenticated requests are left to the authorization rules
+        if (!tenantRateLimiter.isEnabled() || tenantId == null || route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TenantRateLimiter.Admission admission = tenantRateLimiter.tryAcquire(tenantId, route);
+        if (!admission.isPermitted()) {
+            log.warn("[API Gateway] Throttled {} request from tenant '{}' ({} limit)",
+                    route, tenantId, admission.getReason());
+            reject(request, response, admission);
+            return;
+        }
+
+        // Proxied requests complete asynchronously, so the slot is held until the async cycle ends
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                admission.release();
+            }
+        };
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private TenantRateLimiter.Route routeFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals("/api/search")) {
+            return TenantRateLimiter.Route.SEARCH;
+        }
+        // Upload tokens are admitted like uploads, since the uploads they allow bypass the gateway
+        if ((path.equals("/api/documents") || path.equals("/api/documents/batch")
+                || path.equals("/api/documents/upload-tokens"))
+                && HttpMethod.POST.matches(request.getMethod())) {
+            return TenantRateLimiter.Route.UPLOAD;
+        }
+        return null;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        TenantRateLimiter.Admission admission) throws IOException {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        errorResponse.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        errorResponse.put("message", "Request limit exceeded for tenant, retry later");
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        errorResponse.put("path", request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admission.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static final class ReleasingAsyncListener implements AsyncListener {
+
+        private final Runnable release;
+
+        ReleasingAsyncListener(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the next async cycle, the slot stays held until it completes
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.documentsearch.gateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Issues short-lived upload tokens that document-management-service verifies on its own.
+ *
+ * A token is an HS256 JWT with audience "document-upload" carrying the tenant and the largest
+ * request body it allows. It is signed with a key shared only with document-management-service,
+ * separate from the key of the gateway's login tokens.
+ */
+@Component
+public class UploadTokenProvider {
+
+    public static final String AUDIENCE = "document-upload";
+
+    @Value("${upload-token.secret}")
+    private String uploadTokenSecret;
+
+    @Value("${upload-token.expiration-ms:300000}")
+    private long expirationMs;
+
+    private Key signingKey;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(uploadTokenSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public IssuedUploadToken generateToken(String username, String tenantId, long maxSize) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plusMillis(expirationMs);
+
+        String token = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(username)
+                .setAudience(AUDIENCE)
+                .claim("tenantId", tenantId)
+                .claim("maxSize", maxSize)
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(expiresAt))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+        return new IssuedUploadToken(token, expiresAt);
+    }
+
+    public record IssuedUploadToken(String token, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.documentsearch.gateway.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature and expiry have already been checked.
+ * Instances are immutable so they can be shared through the verified-token cache.
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedToken {
+    private final String username;
+    private final String tenantId;
+    private final String role;
+    private final Instant expiresAt;
+}
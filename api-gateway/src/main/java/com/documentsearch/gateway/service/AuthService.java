@@ -8,7 +8,6 @@ import com.documentsearch.gateway.repository.UserRepository;
 import com.documentsearch.gateway.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -19,8 +18,9 @@ import java.time.LocalDateTime;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
+    private final LastLoginRecorder lastLoginRecorder;
 
     /**
      * Register a new user
@@ -39,7 +39,7 @@ public class AuthService {
         // Create new user
         User user = new User();
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setEmail(request.getEmail());
         user.setTenantId(request.getTenantId());
         user.setRole(request.getRole().toUpperCase());
@@ -78,13 +78,12 @@ public class AuthService {
         }
 
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid username or password");
         }
 
-        // Update last login
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        // Record last login; persisted asynchronously in batches
+        lastLoginRecorder.record(user.getId(), LocalDateTime.now());
 
         log.info("User logged in: {} from tenant: {}", user.getUsername(), user.getTenantId());
 
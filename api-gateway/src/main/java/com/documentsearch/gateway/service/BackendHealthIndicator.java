@@ -0,0 +1,47 @@
+package com.documentsearch.gateway.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes circuit state, latency and load of every backend instance under /actuator/health.
+ * The gateway itself stays UP while backends fail, since restarting it would not help;
+ * the details show which instances are being avoided.
+ */
+@Component("backends")
+@RequiredArgsConstructor
+public class BackendHealthIndicator implements HealthIndicator {
+
+    private final List<BackendPool> backendPools;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = Health.up();
+        for (BackendPool pool : backendPools) {
+            Map<String, Object> instances = new LinkedHashMap<>();
+            long available = 0;
+            for (BackendInstance instance : pool.getInstances()) {
+                if (instance.getCircuitState() == BackendInstance.CircuitState.CLOSED) {
+                    available++;
+                }
+                Map<String, Object> details = new LinkedHashMap<>();
+                details.put("circuit", instance.getCircuitState());
+                details.put("latencyEwmaMs", Math.round(instance.getEwmaLatencyMillis() * 10) / 10.0);
+                details.put("inFlight", instance.getInFlight());
+                instances.put(instance.getBaseUrl(), details);
+            }
+
+            Map<String, Object> poolDetails = new LinkedHashMap<>();
+            poolDetails.put("available", available + "/" + pool.getInstances().size());
+            poolDetails.put("instances", instances);
+            builder.withDetail(pool.getName(), poolDetails);
+        }
+        return builder.build();
+    }
+}
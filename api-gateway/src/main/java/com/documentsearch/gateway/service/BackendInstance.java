@@ -0,0 +1,140 @@
+package com.documentsearch.gateway.service;
+
+import lombok.Getter;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One instance of a backend service: its client, an EWMA of response latency, the number of
+ * requests in flight and a circuit breaker. All state is held in atomics so the balancer can
+ * read and update it from any thread without locking.
+ */
+public class BackendInstance {
+
+    public enum CircuitState {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    // Weight of the newest sample in the latency average
+    private static final double EWMA_ALPHA = 0.3;
+
+    // Latency charged for a failed request, so fast failures do not attract more traffic
+    private static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Getter
+    private final String baseUrl;
+    @Getter
+    private final WebClient webClient;
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final AtomicLong ewmaLatencyBits = new AtomicLong(Double.doubleToLongBits(0.0));
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicReference<CircuitState> circuitState = new AtomicReference<>(CircuitState.CLOSED);
+    private volatile long openUntilNanos;
+
+    public BackendInstance(String baseUrl, WebClient webClient, int failureThreshold, long openMillis) {
+        this.baseUrl = baseUrl;
+        this.webClient = webClient;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * Whether the circuit lets a request through. Once the open period has elapsed exactly one
+     * caller is let through as a probe; its outcome closes or re-opens the circuit.
+     */
+    boolean tryAcquirePermission() {
+        CircuitState state = circuitState.get();
+        if (state == CircuitState.CLOSED) {
+            return true;
+        }
+        if (state == CircuitState.OPEN && System.nanoTime() - openUntilNanos >= 0) {
+            return circuitState.compareAndSet(CircuitState.OPEN, CircuitState.HALF_OPEN);
+        }
+        return false;
+    }
+
+    boolean isAvailable() {
+        CircuitState state = circuitState.get();
+        return state == CircuitState.CLOSED
+                || (state == CircuitState.OPEN && System.nanoTime() - openUntilNanos >= 0);
+    }
+
+    void onStart() {
+        inFlight.incrementAndGet();
+    }
+
+    void onSuccess(long latencyNanos) {
+        inFlight.decrementAndGet();
+        recordLatency(latencyNanos);
+        consecutiveFailures.set(0);
+        circuitState.set(CircuitState.CLOSED);
+    }
+
+    void onFailure(long latencyNanos) {
+        inFlight.decrementAndGet();
+        recordLatency(Math.max(latencyNanos, FAILURE_PENALTY_NANOS));
+        if (circuitState.get() == CircuitState.HALF_OPEN
+                || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * The request was abandoned, e.g. it lost a hedge race. The circuit is left alone, but the
+     * elapsed time is a lower bound of the instance's latency and is recorded as such.
+     */
+    void onCancel(long elapsedNanos) {
+        inFlight.decrementAndGet();
+        recordLatency(elapsedNanos);
+        if (circuitState.get() == CircuitState.HALF_OPEN) {
+            // Let the next request probe instead
+            openUntilNanos = System.nanoTime();
+            circuitState.compareAndSet(CircuitState.HALF_OPEN, CircuitState.OPEN);
+        }
+    }
+
+    /**
+     * Load score used by the balancer: expected latency weighted by outstanding requests
+     */
+    double score() {
+        return (getEwmaLatencyMillis() + 1.0) * (inFlight.get() + 1);
+    }
+
+    public double getEwmaLatencyMillis() {
+        return Double.longBitsToDouble(ewmaLatencyBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public CircuitState getCircuitState() {
+        return circuitState.get();
+    }
+
+    private void open() {
+        openUntilNanos = System.nanoTime() + openNanos;
+        circuitState.set(CircuitState.OPEN);
+        consecutiveFailures.set(0);
+    }
+
+    private void recordLatency(long latencyNanos) {
+        double sampleMillis = latencyNanos / 1_000_000.0;
+        while (true) {
+            long currentBits = ewmaLatencyBits.get();
+            double current = Double.longBitsToDouble(currentBits);
+            double updated = current == 0.0 ? sampleMillis : current + EWMA_ALPHA * (sampleMillis - current);
+            if (ewmaLatencyBits.compareAndSet(currentBits, Double.doubleToLongBits(updated))) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.documentsearch.gateway.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * The instances of one backend service.
+ *
+ * Requests go to the less loaded of two randomly picked instances (power of two choices over
+ * the EWMA latency score), skipping instances whose circuit is open. Idempotent requests can be
+ * hedged: if the first attempt has not answered within the recent latency percentile, or fails
+ * outright, a second attempt is sent to a different instance and the first response wins.
+ */
+@Slf4j
+public class BackendPool {
+
+    private static final int LATENCY_WINDOW_SIZE = 1024;
+    private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Getter
+    private final String name;
+    @Getter
+    private final List<BackendInstance> instances;
+
+    private final double hedgePercentile;
+    private final long minHedgeDelayNanos;
+
+    // Recent successful latencies, used to derive the hedge delay
+    private final AtomicLongArray latencyWindow = new AtomicLongArray(LATENCY_WINDOW_SIZE);
+    private final AtomicLong latencySamples = new AtomicLong();
+    private volatile long hedgeDelayNanos;
+    private volatile long hedgeDelayComputedAt = System.nanoTime();
+
+    public BackendPool(String name, List<BackendInstance> instances, double hedgePercentile,
+                       long minHedgeDelayMillis, MeterRegistry meterRegistry) {
+        if (instances.isEmpty()) {
+            throw new IllegalArgumentException("Backend " + name + " has no instances configured");
+        }
+        this.name = name;
+        this.instances = List.copyOf(instances);
+        this.hedgePercentile = hedgePercentile;
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(minHedgeDelayMillis);
+        this.hedgeDelayNanos = minHedgeDelayNanos;
+
+        for (BackendInstance instance : this.instances) {
+            Gauge.builder("gateway.backend.latency.ewma", instance, BackendInstance::getEwmaLatencyMillis)
+                    .description("Smoothed response latency of a backend instance")
+                    .baseUnit("milliseconds")
+                    .tag("backend", name)
+                    .tag("instance", instance.getBaseUrl())
+                    .register(meterRegistry);
+            Gauge.builder("gateway.backend.inflight", instance, BackendInstance::getInFlight)
+                    .description("Requests in flight to a backend instance")
+                    .tag("backend", name)
+                    .tag("instance", instance.getBaseUrl())
+                    .register(meterRegistry);
+            Gauge.builder("gateway.backend.circuit.open", instance,
+                            i -> i.getCircuitState() == BackendInstance.CircuitState.CLOSED ? 0 : 1)
+                    .description("Whether the circuit breaker of a backend instance is open")
+                    .tag("backend", name)
+                    .tag("instance", instance.getBaseUrl())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Send a request to one instance, failing with a TimeoutException if response headers
+     * have not arrived within the deadline
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exchange(
+            Function<WebClient, WebClient.RequestHeadersSpec<?>> request, Duration deadline) {
+        long deadlineAt = System.nanoTime() + deadline.toNanos();
+        return attempt(request, deadlineAt, new AtomicReference<>(), null);
+    }
+
+    /**
+     * Send an idempotent request, hedging it to a second instance when the first is slow or fails
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exchangeHedged(
+            Function<WebClient, WebClient.RequestHeadersSpec<?>> request, Duration deadline) {
+        if (instances.size() < 2) {
+            return exchange(request, deadline);
+        }
+
+        long deadlineAt = System.nanoTime() + deadline.toNanos();
+        AtomicReference<BackendInstance> primaryInstance = new AtomicReference<>();
+        AtomicReference<Throwable> lastError = new AtomicReference<>();
+        Sinks.Empty<Void> primaryFailed = Sinks.empty();
+
+        Mono<ResponseEntity<Flux<DataBuffer>>> primary = attempt(request, deadlineAt, primaryInstance, null)
+                .doOnError(e -> {
+                    lastError.set(e);
+                    primaryFailed.tryEmitEmpty();
+                });
+
+        Mono<ResponseEntity<Flux<DataBuffer>>> hedge = Mono.firstWithSignal(
+                        Mono.delay(Duration.ofNanos(hedgeDelay())).then(),
+                        primaryFailed.asMono())
+                .then(Mono.defer(() -> {
+                    log.debug("[API Gateway] Hedging request to {}", name);
+                    return attempt(request, deadlineAt, new AtomicReference<>(), primaryInstance.get());
+                }))
+                .doOnError(lastError::set);
+
+        return Mono.firstWithValue(primary, hedge)
+                .doOnDiscard(ResponseEntity.class, BackendPool::releaseBody)
+                // Both attempts failed; report the underlying cause rather than Reactor's aggregate
+                .onErrorMap(NoSuchElementException.class, e -> lastError.get() != null ? lastError.get() : e);
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> attempt(
+            Function<WebClient, WebClient.RequestHeadersSpec<?>> request, long deadlineAt,
+            AtomicReference<BackendInstance> chosen, BackendInstance exclude) {
+        return Mono.defer(() -> {
+            long remainingNanos = deadlineAt - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return Mono.error(new TimeoutException("Deadline exceeded before calling " + name));
+            }
+
+            BackendInstance instance = choose(exclude);
+            chosen.set(instance);
+            instance.onStart();
+            long startedAt = System.nanoTime();
+            // Exactly one outcome is reported per attempt, whichever signal arrives first
+            AtomicBoolean reported = new AtomicBoolean();
+
+            return request.apply(instance.getWebClient()).retrieve()
+                    .onStatus(status -> true, clientResponse -> Mono.empty())
+                    .toEntityFlux(BodyExtractors.toDataBuffers())
+                    .timeout(Duration.ofNanos(remainingNanos))
+                    .doOnNext(entity -> {
+                        if (reported.compareAndSet(false, true)) {
+                            long latency = System.nanoTime() - startedAt;
+                            if (entity.getStatusCode().is5xxServerError()) {
+                                instance.onFailure(latency);
+                            } else {
+                                instance.onSuccess(latency);
+                                recordLatency(latency);
+                            }
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (reported.compareAndSet(false, true)) {
+                            log.warn("[API Gateway] {} instance {} failed: {}", name, instance.getBaseUrl(), e.toString());
+                            instance.onFailure(System.nanoTime() - startedAt);
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (reported.compareAndSet(false, true)) {
+                            instance.onCancel(System.nanoTime() - startedAt);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Power of two choices among instances whose circuit admits a request
+     */
+    private BackendInstance choose(BackendInstance exclude) {
+        List<BackendInstance> candidates = new ArrayList<>(instances.size());
+        for (BackendInstance instance : instances) {
+            if (instance != exclude && instance.isAvailable()) {
+                candidates.add(instance);
+            }
+        }
+
+        if (candidates.size() > 2) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(candidates.size());
+            int second = random.nextInt(candidates.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            BackendInstance a = candidates.get(first);
+            BackendInstance b = candidates.get(second);
+            BackendInstance better = a.score() <= b.score() ? a : b;
+            if (better.tryAcquirePermission()) {
+                return better;
+            }
+            candidates.remove(better);
+        }
+
+        candidates.sort(Comparator.comparingDouble(BackendInstance::score));
+        for (BackendInstance candidate : candidates) {
+            if (candidate.tryAcquirePermission()) {
+                return candidate;
+            }
+        }
+        throw new BackendUnavailableException("No available instance of " + name);
+    }
+
+    private void recordLatency(long latencyNanos) {
+        long sample = latencySamples.getAndIncrement();
+        latencyWindow.set((int) (sample % LATENCY_WINDOW_SIZE), latencyNanos);
+    }
+
+    /**
+     * Hedge delay: the configured percentile of recent latencies, recomputed at most once a second
+     */
+    private long hedgeDelay() {
+        long now = System.nanoTime();
+        if (now - hedgeDelayComputedAt < HEDGE_DELAY_REFRESH_NANOS) {
+            return hedgeDelayNanos;
+        }
+        hedgeDelayComputedAt = now;
+
+        int count = (int) Math.min(latencySamples.get(), LATENCY_WINDOW_SIZE);
+        if (count == 0) {
+            return hedgeDelayNanos;
+        }
+        long[] samples = new long[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = latencyWindow.get(i);
+        }
+        Arrays.sort(samples);
+        int index = Math.min(count - 1, (int) Math.ceil(hedgePercentile * count) - 1);
+        hedgeDelayNanos = Math.max(minHedgeDelayNanos, samples[Math.max(0, index)]);
+        return hedgeDelayNanos;
+    }
+
+    private static void releaseBody(ResponseEntity<?> entity) {
+        if (entity.getBody() instanceof Flux<?> body) {
+            body.subscribe(buffer -> DataBufferUtils.release((DataBuffer) buffer), e -> { });
+        }
+    }
+}
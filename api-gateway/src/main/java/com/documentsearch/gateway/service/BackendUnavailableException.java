@@ -0,0 +1,11 @@
+package com.documentsearch.gateway.service;
+
+/**
+ * No instance of a backend service is currently accepting requests
+ */
+public class BackendUnavailableException extends RuntimeException {
+
+    public BackendUnavailableException(String message) {
+        super(message);
+    }
+}
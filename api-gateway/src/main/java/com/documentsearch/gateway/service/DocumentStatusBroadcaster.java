@@ -0,0 +1,94 @@
+package com.documentsearch.gateway.service;
+
+import com.documentsearch.gateway.dto.DocumentStatusEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans document status events out to the subscribers of each tenant.
+ *
+ * A tenant's subscribers share one multicast sink that exists only while someone is subscribed.
+ * Subscribers are reactive streams rather than threads: publishing only enqueues the event, and
+ * each subscriber's writes happen on a worker once its connection can take them. A subscriber
+ * that falls too far behind loses its oldest undelivered events instead of slowing the others.
+ */
+@Service
+@Slf4j
+public class DocumentStatusBroadcaster {
+
+    private static final Sinks.EmitFailureHandler RETRY_CONCURRENT_EMIT =
+            Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
+
+    private final Map<String, TenantChannel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @Value("${events.max-subscribers-per-tenant:100}")
+    private int maxSubscribersPerTenant;
+
+    @Value("${events.subscriber-buffer-size:256}")
+    private int subscriberBufferSize;
+
+    public DocumentStatusBroadcaster(MeterRegistry meterRegistry) {
+        Gauge.builder("gateway.status.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Clients subscribed to document status events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Status events of a tenant's documents from now on.
+     * Throws IllegalStateException if the tenant already has the maximum number of subscribers.
+     */
+    public Flux<DocumentStatusEvent> subscribe(String tenantId) {
+        TenantChannel channel = channels.compute(tenantId, (key, existing) -> {
+            TenantChannel current = existing != null ? existing : new TenantChannel();
+            if (current.subscribers >= maxSubscribersPerTenant) {
+                throw new IllegalStateException(
+                        "Tenant " + tenantId + " has reached " + maxSubscribersPerTenant + " event subscriptions");
+            }
+            current.subscribers++;
+            return current;
+        });
+        subscriberCount.incrementAndGet();
+
+        return channel.sink.asFlux()
+                .onBackpressureBuffer(subscriberBufferSize,
+                        dropped -> log.debug("Dropped status event for slow subscriber of tenant {}", tenantId),
+                        BufferOverflowStrategy.DROP_OLDEST)
+                .publishOn(Schedulers.boundedElastic())
+                .doFinally(signal -> unsubscribe(tenantId));
+    }
+
+    public void publish(DocumentStatusEvent event) {
+        TenantChannel channel = channels.get(event.getTenantId());
+        if (channel == null) {
+            return;
+        }
+        // Listener threads may emit concurrently; the sink needs serialized calls
+        channel.sink.emitNext(event, RETRY_CONCURRENT_EMIT);
+    }
+
+    private void unsubscribe(String tenantId) {
+        subscriberCount.decrementAndGet();
+        channels.computeIfPresent(tenantId, (key, channel) -> --channel.subscribers == 0 ? null : channel);
+    }
+
+    /**
+     * Subscriber count is only read and written inside ConcurrentHashMap.compute for the tenant
+     */
+    private static class TenantChannel {
+        private final Sinks.Many<DocumentStatusEvent> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+}
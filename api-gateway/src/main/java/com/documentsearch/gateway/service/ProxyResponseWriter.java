@@ -0,0 +1,102 @@
+package com.documentsearch.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Relays backend responses to the servlet response byte-for-byte.
+ * Status, headers and any content-encoding are passed through and the body is streamed as
+ * DataBuffers, so memory per request stays constant regardless of payload size.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProxyResponseWriter {
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization",
+            "te", "trailer", "transfer-encoding", "upgrade");
+
+    // Buffers queued between the backend connection and the blocking servlet writer
+    private static final int WRITE_PREFETCH = 4;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Write a backend response entity to the servlet response.
+     * Servlet output is blocking, so writes happen on boundedElastic with a small prefetch
+     * to keep backpressure towards the backend connection.
+     */
+    public Mono<Void> write(ResponseEntity<Flux<DataBuffer>> entity, HttpServletResponse response) {
+        Flux<DataBuffer> body = entity.getBody() != null ? entity.getBody() : Flux.empty();
+
+        return Mono.fromCallable(() -> {
+                    response.setStatus(entity.getStatusCode().value());
+                    entity.getHeaders().forEach((name, values) -> {
+                        if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                            values.forEach(value -> response.addHeader(name, value));
+                        }
+                    });
+                    return response.getOutputStream();
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(outputStream -> writeBody(body, outputStream));
+    }
+
+    /**
+     * Write a small JSON body generated by the gateway itself (validation and proxy errors)
+     */
+    public Mono<Void> writeJson(HttpServletResponse response, HttpStatusCode status, Object body) {
+        return Mono.fromRunnable(() -> {
+            try {
+                response.setStatus(status.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                objectMapper.writeValue(response.getOutputStream(), body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Copy selected client request headers onto the backend request
+     */
+    public void copyRequestHeaders(HttpServletRequest request, HttpHeaders headers, String... names) {
+        for (String name : names) {
+            Enumeration<String> values = request.getHeaders(name);
+            if (values != null && values.hasMoreElements()) {
+                headers.put(name, Collections.list(values));
+            }
+        }
+    }
+
+    private Mono<Void> writeBody(Flux<DataBuffer> body, OutputStream outputStream) {
+        return DataBufferUtils.write(
+                        body.publishOn(Schedulers.boundedElastic(), WRITE_PREFETCH)
+                                .doOnDiscard(DataBuffer.class, DataBufferUtils::release),
+                        outputStream)
+                .doOnNext(DataBufferUtils::release)
+                .then();
+    }
+}
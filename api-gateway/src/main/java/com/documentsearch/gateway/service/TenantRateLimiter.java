@@ -0,0 +1,203 @@
+package com.documentsearch.gateway.service;
+
+import com.documentsearch.gateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-tenant admission control for the expensive gateway routes.
+ *
+ * Every tenant gets, per route, a token bucket bounding its request rate and a counter
+ * bounding its in-flight requests. Both are single atomics updated with CAS, so admission
+ * never blocks and costs a few nanoseconds on the request thread.
+ */
+@Service
+@RequiredArgsConstructor
+public class TenantRateLimiter {
+
+    public enum Route {
+        SEARCH, UPLOAD
+    }
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, TenantLimits> limits = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Try to admit a request. A permitted admission holds a concurrency slot that must be
+     * returned with {@link Admission#release()} once the request has completed.
+     */
+    public Admission tryAcquire(String tenantId, Route route) {
+        TenantLimits tenantLimits = limits.computeIfAbsent(tenantId + ':' + route,
+                key -> createLimits(tenantId, route));
+
+        long waitNanos = tenantLimits.bucket.tryAcquire();
+        if (waitNanos > 0) {
+            tenantLimits.rateThrottled.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            return Admission.rejected("rate", retryAfterSeconds);
+        }
+
+        if (!tenantLimits.concurrency.tryAcquire()) {
+            tenantLimits.concurrencyThrottled.increment();
+            return Admission.rejected("concurrency", 1);
+        }
+
+        return Admission.permitted(tenantLimits.concurrency);
+    }
+
+    private TenantLimits createLimits(String tenantId, Route route) {
+        RateLimitProperties.Tier tier = properties.tierFor(tenantId);
+        RateLimitProperties.RouteLimit routeLimit = route == Route.SEARCH ? tier.getSearch() : tier.getUpload();
+        String routeTag = route.name().toLowerCase(Locale.ROOT);
+
+        return new TenantLimits(
+                new TokenBucket(routeLimit.getRequestsPerSecond(), routeLimit.getBurst()),
+                new ConcurrencyLimiter(routeLimit.getMaxConcurrent()),
+                throttledCounter(tenantId, routeTag, "rate"),
+                throttledCounter(tenantId, routeTag, "concurrency"));
+    }
+
+    private Counter throttledCounter(String tenantId, String route, String reason) {
+        return Counter.builder("gateway.tenant.throttled")
+                .description("Requests rejected by per-tenant admission control")
+                .tag("tenant", tenantId)
+                .tag("route", route)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record TenantLimits(TokenBucket bucket, ConcurrencyLimiter concurrency,
+                                Counter rateThrottled, Counter concurrencyThrottled) {
+    }
+
+    /**
+     * Outcome of an admission attempt
+     */
+    public static final class Admission {
+
+        private final ConcurrencyLimiter limiter;
+        private final String reason;
+        private final long retryAfterSeconds;
+
+        private Admission(ConcurrencyLimiter limiter, String reason, long retryAfterSeconds) {
+            this.limiter = limiter;
+            this.reason = reason;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        static Admission permitted(ConcurrencyLimiter limiter) {
+            return new Admission(limiter, null, 0);
+        }
+
+        static Admission rejected(String reason, long retryAfterSeconds) {
+            return new Admission(null, reason, retryAfterSeconds);
+        }
+
+        public boolean isPermitted() {
+            return limiter != null;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        /**
+         * Return the concurrency slot; callers must invoke this exactly once per permitted admission
+         */
+        public void release() {
+            if (limiter != null) {
+                limiter.release();
+            }
+        }
+    }
+
+    /**
+     * Token bucket implemented as GCRA: the whole state is the theoretical arrival time of the
+     * next request, so a single CAS replaces the refill-then-take sequence of a classic bucket.
+     */
+    static final class TokenBucket {
+
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final LongSupplier nanoTime;
+        private final AtomicLong theoreticalArrival;
+
+        TokenBucket(double requestsPerSecond, int burst) {
+            this(requestsPerSecond, burst, System::nanoTime);
+        }
+
+        TokenBucket(double requestsPerSecond, int burst, LongSupplier nanoTime) {
+            this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(requestsPerSecond, 0.001));
+            this.burstToleranceNanos = emissionIntervalNanos * Math.max(burst, 1);
+            this.nanoTime = nanoTime;
+            this.theoreticalArrival = new AtomicLong(nanoTime.getAsLong());
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise the nanoseconds until one becomes available
+         */
+        long tryAcquire() {
+            while (true) {
+                long now = nanoTime.getAsLong();
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + emissionIntervalNanos;
+                long excess = next - now - burstToleranceNanos;
+                if (excess > 0) {
+                    return excess;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Non-blocking bound on in-flight requests
+     */
+    static final class ConcurrencyLimiter {
+
+        private final int maxConcurrent;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        ConcurrencyLimiter(int maxConcurrent) {
+            this.maxConcurrent = Math.max(maxConcurrent, 1);
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= maxConcurrent) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
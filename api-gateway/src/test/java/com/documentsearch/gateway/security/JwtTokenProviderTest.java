@@ -0,0 +1,91 @@
+package com.documentsearch.gateway.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-that-is-long-enough-for-hmac-sha-256-signatures";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-15T10:00:00Z"));
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new JwtTokenProvider(clock);
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", Duration.ofMinutes(10).toMillis());
+        ReflectionTestUtils.setField(provider, "verifiedTokenCacheSize", 100L);
+        provider.init();
+    }
+
+    @Test
+    void verifiesTokenAndServesRepeatsFromCache() {
+        String token = provider.generateToken("alice", "acme", "USER");
+
+        VerifiedToken first = provider.verifyToken(token).orElseThrow();
+        VerifiedToken second = provider.verifyToken(token).orElseThrow();
+
+        assertThat(first.getUsername()).isEqualTo("alice");
+        assertThat(first.getTenantId()).isEqualTo("acme");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void cachedTokenExpiresWithTheConfiguredClock() {
+        String token = provider.generateToken("alice", "acme", "USER");
+        assertThat(provider.verifyToken(token)).isPresent();
+
+        clock.advance(Duration.ofMinutes(9));
+        assertThat(provider.verifyToken(token)).isPresent();
+
+        // Past the token's expiry the cached entry is gone and the token is rejected
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(provider.verifyToken(token)).isEmpty();
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        String token = provider.generateToken("alice", "acme", "USER");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(provider.verifyToken(tampered)).isEmpty();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
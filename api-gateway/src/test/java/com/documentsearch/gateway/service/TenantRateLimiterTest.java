@@ -0,0 +1,164 @@
+package com.documentsearch.gateway.service;
+
+import com.documentsearch.gateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void bucketAdmitsBurstThenRejectsWithWaitOfOneInterval() {
+        AtomicLong now = new AtomicLong(1_000 * SECOND);
+        TenantRateLimiter.TokenBucket bucket = new TenantRateLimiter.TokenBucket(10, 5, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire()).as("request %d", i).isZero();
+        }
+        // One token is emitted every 100ms
+        assertThat(bucket.tryAcquire()).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    void bucketRefillsOneTokenPerIntervalUpToTheBurst() {
+        AtomicLong now = new AtomicLong(1_000 * SECOND);
+        TenantRateLimiter.TokenBucket bucket = new TenantRateLimiter.TokenBucket(10, 5, now::get);
+        drain(bucket);
+
+        now.addAndGet(SECOND / 10);
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isPositive();
+
+        now.addAndGet(SECOND / 20);
+        assertThat(bucket.tryAcquire()).isEqualTo(SECOND / 20);
+
+        // A long idle period restores the burst, not more
+        now.addAndGet(60 * SECOND);
+        assertThat(drain(bucket)).isEqualTo(5);
+    }
+
+    @Test
+    void bucketAdmitsExactlyTheBurstUnderContention() throws Exception {
+        AtomicLong now = new AtomicLong(1_000 * SECOND);
+        TenantRateLimiter.TokenBucket bucket = new TenantRateLimiter.TokenBucket(1, 50, now::get);
+        AtomicInteger admitted = new AtomicInteger();
+
+        runConcurrently(8, 100, () -> {
+            if (bucket.tryAcquire() == 0) {
+                admitted.incrementAndGet();
+            }
+        });
+
+        assertThat(admitted.get()).isEqualTo(50);
+    }
+
+    @Test
+    void rejectsOverTheRateWithRetryAfter() {
+        TenantRateLimiter limiter = limiter(new RateLimitProperties.RouteLimit(0.5, 2, 10));
+
+        limiter.tryAcquire("acme", TenantRateLimiter.Route.SEARCH).release();
+        limiter.tryAcquire("acme", TenantRateLimiter.Route.SEARCH).release();
+        TenantRateLimiter.Admission rejected = limiter.tryAcquire("acme", TenantRateLimiter.Route.SEARCH);
+
+        assertThat(rejected.isPermitted()).isFalse();
+        assertThat(rejected.getReason()).isEqualTo("rate");
+        assertThat(rejected.getRetryAfterSeconds()).isBetween(1L, 2L);
+        // Limits are kept per tenant
+        assertThat(limiter.tryAcquire("globex", TenantRateLimiter.Route.SEARCH).isPermitted()).isTrue();
+    }
+
+    @Test
+    void releasedConcurrencySlotIsAvailableAgain() {
+        TenantRateLimiter limiter = limiter(new RateLimitProperties.RouteLimit(1000, 1000, 2));
+
+        TenantRateLimiter.Admission first = limiter.tryAcquire("acme", TenantRateLimiter.Route.UPLOAD);
+        TenantRateLimiter.Admission second = limiter.tryAcquire("acme", TenantRateLimiter.Route.UPLOAD);
+        TenantRateLimiter.Admission third = limiter.tryAcquire("acme", TenantRateLimiter.Route.UPLOAD);
+
+        assertThat(first.isPermitted()).isTrue();
+        assertThat(second.isPermitted()).isTrue();
+        assertThat(third.isPermitted()).isFalse();
+        assertThat(third.getReason()).isEqualTo("concurrency");
+
+        first.release();
+        third.release(); // a rejected admission holds no slot; releasing it must not free one
+        assertThat(limiter.tryAcquire("acme", TenantRateLimiter.Route.UPLOAD).isPermitted()).isTrue();
+        assertThat(limiter.tryAcquire("acme", TenantRateLimiter.Route.UPLOAD).isPermitted()).isFalse();
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedTheConcurrencyLimit() throws Exception {
+        TenantRateLimiter limiter = limiter(new RateLimitProperties.RouteLimit(1_000_000, 1_000_000, 3));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        runConcurrently(8, 2000, () -> {
+            TenantRateLimiter.Admission admission = limiter.tryAcquire("acme", TenantRateLimiter.Route.SEARCH);
+            if (admission.isPermitted()) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                inFlight.decrementAndGet();
+                admission.release();
+            }
+        });
+
+        assertThat(maxInFlight.get()).isBetween(1, 3);
+        // Every slot was returned
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("acme", TenantRateLimiter.Route.SEARCH).isPermitted()).isTrue();
+        }
+        assertThat(limiter.tryAcquire("acme", TenantRateLimiter.Route.SEARCH).isPermitted()).isFalse();
+    }
+
+    private static TenantRateLimiter limiter(RateLimitProperties.RouteLimit routeLimit) {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Tier tier = new RateLimitProperties.Tier();
+        tier.setSearch(routeLimit);
+        tier.setUpload(routeLimit);
+        properties.getTiers().put("standard", tier);
+        return new TenantRateLimiter(properties, new SimpleMeterRegistry());
+    }
+
+    private static int drain(TenantRateLimiter.TokenBucket bucket) {
+        int taken = 0;
+        while (bucket.tryAcquire() == 0) {
+            taken++;
+        }
+        return taken;
+    }
+
+    private static void runConcurrently(int threads, int iterationsPerThread, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < iterationsPerThread; i++) {
+                        task.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
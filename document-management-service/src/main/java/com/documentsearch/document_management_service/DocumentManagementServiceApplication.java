@@ -2,8 +2,10 @@ package com.documentsearch.document_management_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class DocumentManagementServiceApplication {
 
 	public static void main(String[] args) {
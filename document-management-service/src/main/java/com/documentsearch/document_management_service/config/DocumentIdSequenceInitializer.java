@@ -0,0 +1,51 @@
+package com.documentsearch.document_management_service.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the documents_seq generator past ids already in the table.
+ *
+ * Document ids used to come from an AUTO_INCREMENT column. On MySQL the sequence is emulated
+ * by the documents_seq table, which Hibernate creates starting at 1, so on an existing database
+ * it has to be advanced before the first insert. Runs once the schema is in place and before
+ * the web server accepts requests.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentIdSequenceInitializer {
+
+    // Must match the allocationSize of the documents_seq generator
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Depends on the EntityManagerFactory so the schema update has already run
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void alignSequence() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            return;
+        }
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM documents", Long.class);
+        if (maxId == null) {
+            return;
+        }
+
+        int updated = jdbcTemplate.update(
+                "UPDATE documents_seq SET next_val = ? WHERE next_val <= ?",
+                maxId + ALLOCATION_SIZE + 1, maxId);
+        if (updated > 0) {
+            log.info("Advanced documents_seq past existing document id {}", maxId);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.documentsearch.document_management_service.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+@Configuration
+public class MultipartConfig {
+
+    /**
+     * Servlet multipart parsing spools the whole body to a temp file before the controller runs.
+     * Single uploads to POST /documents are parsed incrementally by DocumentService instead, so
+     * they are excluded here; every other multipart endpoint keeps the standard resolver.
+     */
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public MultipartResolver multipartResolver() {
+        return new StandardServletMultipartResolver() {
+            @Override
+            public boolean isMultipart(HttpServletRequest request) {
+                return !isStreamingUpload(request) && super.isMultipart(request);
+            }
+        };
+    }
+
+    private static boolean isStreamingUpload(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return HttpMethod.POST.matches(request.getMethod())
+                && (path.equals("/documents") || path.equals("/documents/"));
+    }
+}
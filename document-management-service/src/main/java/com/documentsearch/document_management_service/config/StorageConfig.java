@@ -0,0 +1,51 @@
+package com.documentsearch.document_management_service.config;
+
+import com.documentsearch.shared_models.storage.BlobStore;
+import com.documentsearch.shared_models.storage.FsyncPolicy;
+import com.documentsearch.shared_models.storage.LocalBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class StorageConfig {
+
+    @Value("${document.storage.path:./document-storage}")
+    private String storagePath;
+
+    @Value("${document.storage.shard-depth:2}")
+    private int shardDepth;
+
+    @Value("${document.storage.fsync:FILE}")
+    private FsyncPolicy fsyncPolicy;
+
+    @Value("${document.batch.storage-threads:4}")
+    private int storageThreads;
+
+    /**
+     * Document files, sharded by content digest under document.storage.path/blobs
+     */
+    @Bean
+    public BlobStore blobStore() {
+        return new LocalBlobStore(Paths.get(storagePath), shardDepth, fsyncPolicy);
+    }
+
+    /**
+     * Writes the files of a batch upload in parallel. When the queue is full the uploading
+     * request thread stores the file itself, which throttles batches instead of failing them.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor documentStorageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(storageThreads);
+        executor.setMaxPoolSize(storageThreads);
+        executor.setQueueCapacity(storageThreads * 16);
+        executor.setThreadNamePrefix("document-storage-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
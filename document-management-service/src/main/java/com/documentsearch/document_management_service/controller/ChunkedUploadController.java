@@ -0,0 +1,109 @@
+package com.documentsearch.document_management_service.controller;
+
+import com.documentsearch.document_management_service.dto.DocumentUploadResponse;
+import com.documentsearch.document_management_service.dto.ErrorResponse;
+import com.documentsearch.document_management_service.dto.UploadInitRequest;
+import com.documentsearch.document_management_service.dto.UploadSessionResponse;
+import com.documentsearch.document_management_service.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Resumable chunked upload protocol:
+ * POST /documents/uploads starts a session, PUT .../chunks/{index} sends chunks (in any order,
+ * in parallel, each with an X-Chunk-SHA256 header), GET /documents/uploads/{id} lists the
+ * chunks still missing, and POST .../commit creates the document.
+ */
+@RestController
+@RequestMapping("/documents/uploads")
+@Slf4j
+public class ChunkedUploadController {
+
+    public static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-SHA256";
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<?> initiateUpload(
+            @RequestBody UploadInitRequest request,
+            @RequestParam(value = "tenantId", required = false, defaultValue = "default") String tenantId) {
+        String path = "/documents/uploads";
+        try {
+            UploadSessionResponse response = chunkedUploadService.initiate(request, tenantId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (Exception e) {
+            return errorResponse(e, tenantId, path);
+        }
+    }
+
+    @PutMapping("/{uploadId}/chunks/{chunkIndex}")
+    public ResponseEntity<?> uploadChunk(
+            @PathVariable String uploadId,
+            @PathVariable int chunkIndex,
+            @RequestHeader(value = CHUNK_CHECKSUM_HEADER, required = false) String checksum,
+            @RequestParam(value = "tenantId", required = false, defaultValue = "default") String tenantId,
+            HttpServletRequest request) {
+        String path = "/documents/uploads/" + uploadId + "/chunks/" + chunkIndex;
+        try {
+            chunkedUploadService.writeChunk(uploadId, tenantId, chunkIndex,
+                    request.getContentLengthLong(), checksum, request.getInputStream());
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return errorResponse(e, tenantId, path);
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> getUpload(
+            @PathVariable String uploadId,
+            @RequestParam(value = "tenantId", required = false, defaultValue = "default") String tenantId) {
+        String path = "/documents/uploads/" + uploadId;
+        try {
+            return ResponseEntity.ok(chunkedUploadService.getStatus(uploadId, tenantId));
+        } catch (Exception e) {
+            return errorResponse(e, tenantId, path);
+        }
+    }
+
+    @PostMapping("/{uploadId}/commit")
+    public ResponseEntity<?> commitUpload(
+            @PathVariable String uploadId,
+            @RequestParam(value = "tenantId", required = false, defaultValue = "default") String tenantId) {
+        String path = "/documents/uploads/" + uploadId + "/commit";
+        try {
+            DocumentUploadResponse response = chunkedUploadService.commit(uploadId, tenantId);
+            log.info("Chunked upload committed: uploadId={}, documentId={}, tenant={}",
+                    uploadId, response.getDocumentId(), tenantId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (Exception e) {
+            return errorResponse(e, tenantId, path);
+        }
+    }
+
+    private ResponseEntity<ErrorResponse> errorResponse(Exception e, String tenantId, String path) {
+        HttpStatus status;
+        if (e instanceof IllegalArgumentException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else if (e instanceof NoSuchElementException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (e instanceof IllegalStateException) {
+            status = HttpStatus.CONFLICT;
+        } else {
+            log.error("Error processing chunked upload for tenant {}: {}", tenantId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse(500, "Internal Server Error",
+                            "Failed to process upload: " + e.getMessage(), path));
+        }
+
+        log.warn("Rejected chunked upload request for tenant {}: {}", tenantId, e.getMessage());
+        return ResponseEntity.status(status)
+                .body(new ErrorResponse(status.value(), status.getReasonPhrase(), e.getMessage(), path));
+    }
+}
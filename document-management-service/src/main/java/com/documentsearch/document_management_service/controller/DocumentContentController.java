@@ -0,0 +1,257 @@
+package com.documentsearch.document_management_service.controller;
+
+import com.documentsearch.document_management_service.dto.ErrorResponse;
+import com.documentsearch.document_management_service.entity.Document;
+import com.documentsearch.document_management_service.service.DocumentService;
+import com.documentsearch.shared_models.storage.BlobCodec;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Download of stored originals: GET /documents/{id}/content.
+ *
+ * Supports conditional requests (ETag from the content digest, Last-Modified from uploadedAt)
+ * and single byte ranges. Files stored uncompressed are handed to Tomcat's sendfile support so
+ * the kernel copies them to the socket; compressed files are sent as-is with
+ * Content-Encoding: deflate to clients that accept it, and decoded on the fly otherwise.
+ */
+@RestController
+@RequestMapping("/documents")
+@Slf4j
+public class DocumentContentController {
+
+    // Request attributes of Tomcat's sendfile support; the file is written after the handler returns
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @GetMapping("/{documentId}/content")
+    public ResponseEntity<?> downloadDocument(
+            @PathVariable Long documentId,
+            @RequestParam(value = "tenantId", required = false, defaultValue = "default") String tenantId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        String path = "/documents/" + documentId + "/content";
+
+        Document document;
+        try {
+            document = documentService.getDocument(documentId, tenantId);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse(404, "Not Found", e.getMessage(), path));
+        }
+
+        long size = document.getFileSize();
+        long lastModified = document.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        BlobCodec codec = document.getStorageCodec() != null
+                ? BlobCodec.valueOf(document.getStorageCodec()) : BlobCodec.NONE;
+        Optional<Path> localFile = documentService.localFile(document);
+        String etag = etag(document, "");
+
+        HttpRange range = null;
+        if (isRangeApplicable(request, etag, lastModified)) {
+            range = requestedRange(request.getHeader(HttpHeaders.RANGE));
+            if (range != null && !isSatisfiable(range, size)) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build();
+            }
+        }
+
+        // The stored deflate stream is exactly HTTP's "deflate" content coding
+        boolean sendEncoded = range == null && codec == BlobCodec.DEFLATE && localFile.isPresent()
+                && acceptsDeflate(request);
+        if (codec != BlobCodec.NONE) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(
+                sendEncoded ? etag(document, "-deflate") : etag, lastModified)) {
+            return null;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Content can be cached, but access has to be re-checked on every use
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.setContentType(document.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(document.getFileName(), StandardCharsets.UTF_8).build().toString());
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+
+        if (sendEncoded) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "deflate");
+            long storedSize = document.getStoredSize();
+            response.setContentLengthLong(storedSize);
+            if (!head) {
+                sendFile(request, response, localFile.get(), 0, storedSize);
+            }
+            return null;
+        }
+
+        long start = 0;
+        long length = size;
+        if (range != null) {
+            start = range.getRangeStart(size);
+            length = range.getRangeEnd(size) - start + 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + start + "-" + (start + length - 1) + "/" + size);
+        }
+        response.setContentLengthLong(length);
+        if (head) {
+            return null;
+        }
+
+        if (codec == BlobCodec.NONE && localFile.isPresent()) {
+            sendFile(request, response, localFile.get(), start, length);
+        } else {
+            copyDecoded(document, response, start, length);
+        }
+        log.debug("Sent {} bytes of document {} for tenant {}", length, documentId, tenantId);
+        // The body has been written (or handed to sendfile) directly
+        return null;
+    }
+
+    /**
+     * Strong validator: the content digest, which changes whenever the bytes do
+     */
+    private String etag(Document document, String suffix) {
+        String tag = document.getContentDigest() != null
+                ? document.getContentDigest()
+                : document.getId() + "-" + document.getFileSize();
+        return "\"" + tag + suffix + "\"";
+    }
+
+    /**
+     * A Range header only applies if the If-Range validator, when present, still matches
+     */
+    private boolean isRangeApplicable(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+        return date != -1 && date / 1000 == lastModified / 1000;
+    }
+
+    /**
+     * The single requested range, or null to send the whole content.
+     * Malformed headers and multi-range requests are answered with the full content.
+     */
+    private HttpRange requestedRange(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean isSatisfiable(HttpRange range, long size) {
+        try {
+            long start = range.getRangeStart(size);
+            return start < size && start <= range.getRangeEnd(size);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean acceptsDeflate(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equals("deflate")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Send a region of a file with sendfile when the container supports it, otherwise with
+     * FileChannel.transferTo
+     */
+    private void sendFile(HttpServletRequest request, HttpServletResponse response, Path file,
+                          long start, long length) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    throw new EOFException("File " + file + " is shorter than recorded");
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Decode a compressed document and copy the requested region of the original content
+     */
+    private void copyDecoded(Document document, HttpServletResponse response, long start, long length)
+            throws IOException {
+        try (InputStream in = documentService.openContent(document)) {
+            in.skipNBytes(start);
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new EOFException("Document " + document.getId() + " is shorter than recorded");
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+}
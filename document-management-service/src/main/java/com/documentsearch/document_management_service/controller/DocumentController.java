@@ -1,14 +1,34 @@
 package com.documentsearch.document_management_service.controller;
 
+import com.documentsearch.document_management_service.dto.BatchUploadResponse;
+import com.documentsearch.document_management_service.dto.DocumentPageResponse;
 import com.documentsearch.document_management_service.dto.DocumentUploadResponse;
 import com.documentsearch.document_management_service.dto.ErrorResponse;
 import com.documentsearch.document_management_service.service.DocumentService;
+import com.documentsearch.document_management_service.service.LimitedInputStream;
+import com.documentsearch.document_management_service.service.UploadTokenVerifier;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/documents")
@@ -18,13 +38,91 @@ public class DocumentController {
     @Autowired
     private DocumentService documentService;
 
-    @PostMapping
-    public ResponseEntity<?> uploadDocument(
-            @RequestParam("file") MultipartFile file,
+    @Autowired
+    private UploadTokenVerifier uploadTokenVerifier;
+
+    @Value("${document.upload.max-direct-upload-size:50MB}")
+    private DataSize maxUploadSize;
+
+    @Value("${document.batch.max-files:100}")
+    private int maxBatchFiles;
+
+    @Value("${document.listing.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${document.listing.max-page-size:200}")
+    private int maxPageSize;
+
+    /**
+     * List a tenant's documents, newest first, optionally only those with a given status.
+     * Pages are chained with the opaque "after" cursor returned as nextCursor.
+     */
+    @GetMapping
+    public ResponseEntity<?> listDocuments(
+            @RequestParam(value = "tenantId", required = false, defaultValue = "default") String tenantId,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        int pageSize = limit != null ? limit : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(400, "Bad Request",
+                            "limit must be between 1 and " + maxPageSize, "/documents"));
+        }
+        try {
+            String statusFilter = StringUtils.hasText(status) ? status.trim().toUpperCase(Locale.ROOT) : null;
+            String cursor = StringUtils.hasText(after) ? after : null;
+            DocumentPageResponse page = documentService.listDocuments(tenantId, statusFilter, cursor, pageSize);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(400, "Bad Request", e.getMessage(), "/documents"));
+        }
+    }
+
+    /**
+     * Status of a single document of the tenant
+     */
+    @GetMapping("/{documentId}")
+    public ResponseEntity<?> getDocument(
+            @PathVariable Long documentId,
             @RequestParam(value = "tenantId", required = false, defaultValue = "default") String tenantId) {
         try {
-            // Validate file
-            if (file == null || file.isEmpty()) {
+            return ResponseEntity.ok(documentService.toSummary(documentService.getDocument(documentId, tenantId)));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorResponse(404, "Not Found", e.getMessage(), "/documents/" + documentId));
+        }
+    }
+
+    /**
+     * Upload a single document: multipart with a "file" part. The body is parsed as it arrives
+     * and the file written straight to storage (see MultipartConfig); a body with a "tenantId"
+     * part is rejected with 400.
+     *
+     * This endpoint may be exposed to clients, so every request needs "Authorization: Bearer"
+     * with an upload token from the gateway, which also mints one for the uploads it proxies.
+     * The tenant and size limit come from the token only; a tenantId query parameter is ignored.
+     */
+    @PostMapping
+    public ResponseEntity<?> uploadDocument(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        Optional<UploadTokenVerifier.UploadGrant> grant = authorization != null && authorization.startsWith("Bearer ")
+                ? uploadTokenVerifier.verify(authorization.substring(7).trim())
+                : Optional.empty();
+        if (grant.isEmpty()) {
+            log.warn("Rejected upload without a valid upload token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                    .body(new ErrorResponse(401, "Unauthorized", "Missing, invalid or expired upload token", "/documents"));
+        }
+        String tenantId = grant.get().tenantId();
+        long maxSize = Math.min(maxUploadSize.toBytes(), grant.get().maxSize());
+
+        try {
+            String boundary = multipartBoundary(request.getContentType());
+            long contentLength = request.getContentLengthLong();
+            if (boundary == null || contentLength == 0) {
                 log.warn("Empty file upload attempt for tenant: {}", tenantId);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(new ErrorResponse(
@@ -35,42 +133,26 @@ public class DocumentController {
                         ));
             }
 
-            // Validate file size (e.g., max 50MB)
-            long maxSize = 50 * 1024 * 1024; // 50MB
-            if (file.getSize() > maxSize) {
-                log.warn("File too large: {} bytes for tenant: {}", file.getSize(), tenantId);
-                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
-                        .body(new ErrorResponse(
-                                413,
-                                "Payload Too Large",
-                                "File size exceeds maximum allowed size of 50MB",
-                                "/documents"
-                        ));
-            }
-
-            // Validate file name
-            String originalFilename = file.getOriginalFilename();
-            if (originalFilename == null || originalFilename.trim().isEmpty()) {
-                log.warn("Invalid filename for tenant: {}", tenantId);
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(new ErrorResponse(
-                                400,
-                                "Bad Request",
-                                "File must have a valid filename",
-                                "/documents"
-                        ));
+            // Reject by declared length before reading anything; LimitedInputStream covers chunked bodies
+            if (contentLength > maxSize) {
+                log.warn("Upload too large: {} bytes for tenant: {}", contentLength, tenantId);
+                return payloadTooLarge(maxSize);
             }
 
-            log.info("Processing document upload: {} ({} bytes) for tenant: {}",
-                    originalFilename, file.getSize(), tenantId);
+            log.info("Processing document upload ({} bytes) for tenant: {}",
+                    contentLength >= 0 ? contentLength : "unknown", tenantId);
 
-            DocumentUploadResponse response = documentService.uploadDocument(file, tenantId);
+            DocumentUploadResponse response = documentService.uploadDocument(
+                    new LimitedInputStream(request.getInputStream(), maxSize), boundary, tenantId);
 
             log.info("Document uploaded successfully: ID={}, fileName={}, tenant={}",
                     response.getDocumentId(), response.getFileName(), tenantId);
 
             return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
 
+        } catch (MaxUploadSizeExceededException e) {
+            log.warn("Upload for tenant {} exceeded {} bytes", tenantId, e.getMaxUploadSize());
+            return payloadTooLarge(e.getMaxUploadSize());
         } catch (IllegalArgumentException e) {
             log.error("Invalid request for tenant {}: {}", tenantId, e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -91,4 +173,94 @@ public class DocumentController {
                     ));
         }
     }
+
+    /**
+     * Upload several files at once: multipart with repeated "files" parts.
+     * Files are stored in parallel and their metadata inserted and queued for indexing as one batch.
+     *
+     * The tenant is the tenantId query parameter only; @RequestParam would also bind form parts,
+     * so a body with a "tenantId" part is rejected with 400.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> uploadDocuments(@RequestParam("files") List<MultipartFile> files,
+                                             HttpServletRequest request) {
+        String tenantId = queryParameter(request, "tenantId", "default");
+        try {
+            if (request.getPart("tenantId") != null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse(400, "Bad Request",
+                                "TenantId must not be sent in the request body", "/documents/batch"));
+            }
+            if (files == null || files.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse(400, "Bad Request", "At least one file is required", "/documents/batch"));
+            }
+            if (files.size() > maxBatchFiles) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse(400, "Bad Request",
+                                "A batch may contain at most " + maxBatchFiles + " files", "/documents/batch"));
+            }
+
+            log.info("Processing batch upload of {} files for tenant: {}", files.size(), tenantId);
+
+            List<DocumentUploadResponse> documents = documentService.uploadDocuments(files, tenantId);
+
+            log.info("Batch of {} documents uploaded successfully for tenant: {}", documents.size(), tenantId);
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(new BatchUploadResponse(documents.size(), documents));
+
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid batch request for tenant {}: {}", tenantId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ErrorResponse(400, "Bad Request", e.getMessage(), "/documents/batch"));
+        } catch (Exception e) {
+            log.error("Error processing batch upload for tenant {}: {}", tenantId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse(500, "Internal Server Error",
+                            "Failed to upload documents: " + e.getMessage(), "/documents/batch"));
+        }
+    }
+
+    private ResponseEntity<ErrorResponse> payloadTooLarge(long maxSize) {
+        DataSize limit = DataSize.ofBytes(maxSize);
+        // Token limits are sized to the declared file and rarely whole megabytes
+        String formatted = maxSize % DataSize.ofMegabytes(1).toBytes() == 0
+                ? limit.toMegabytes() + "MB"
+                : maxSize + " bytes";
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new ErrorResponse(
+                        413,
+                        "Payload Too Large",
+                        "File size exceeds maximum allowed size of " + formatted,
+                        "/documents"
+                ));
+    }
+
+    private String queryParameter(HttpServletRequest request, String name, String defaultValue) {
+        String value = UriComponentsBuilder.newInstance().query(request.getQueryString()).build()
+                .getQueryParams().getFirst(name);
+        return value != null ? UriUtils.decode(value, StandardCharsets.UTF_8) : defaultValue;
+    }
+
+    /**
+     * Boundary of a multipart/form-data content type, or null if it is not one
+     */
+    private String multipartBoundary(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (!MediaType.MULTIPART_FORM_DATA.includes(mediaType)) {
+                return null;
+            }
+            String boundary = mediaType.getParameter("boundary");
+            if (boundary != null && boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+                boundary = boundary.substring(1, boundary.length() - 1);
+            }
+            return StringUtils.hasText(boundary) ? boundary : null;
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
 }
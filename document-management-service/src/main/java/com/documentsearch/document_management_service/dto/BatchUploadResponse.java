@@ -0,0 +1,15 @@
+package com.documentsearch.document_management_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadResponse {
+    private int documentCount;
+    private List<DocumentUploadResponse> documents;
+}
@@ -17,5 +17,7 @@ public class DocumentIndexMessage implements Serializable {
     private String contentType;
     private Long fileSize;
     private LocalDateTime uploadedAt;
+    private String contentDigest; // SHA-256 of the file content
+    private Long sourceDocumentId; // indexed document of the same tenant with identical content, if any
 }
 
@@ -0,0 +1,15 @@
+package com.documentsearch.document_management_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentPageResponse {
+    private List<DocumentSummary> documents;
+    private String nextCursor; // pass as "after" to get the next page; null on the last page
+}
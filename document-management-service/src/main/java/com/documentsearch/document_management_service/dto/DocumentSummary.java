@@ -0,0 +1,20 @@
+package com.documentsearch.document_management_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSummary {
+    private Long documentId;
+    private String fileName;
+    private String contentType;
+    private Long fileSize;
+    private String status;
+    private LocalDateTime uploadedAt;
+    private LocalDateTime indexedAt;
+}
@@ -0,0 +1,15 @@
+package com.documentsearch.document_management_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadInitRequest {
+    private String fileName;
+    private String contentType;
+    private Long fileSize;
+    private Integer chunkSize; // optional, server default if absent
+}
@@ -0,0 +1,21 @@
+package com.documentsearch.document_management_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private String uploadId;
+    private String fileName;
+    private Long fileSize;
+    private Integer chunkSize;
+    private Integer totalChunks;
+    private String status;
+    private List<Integer> missingChunks; // chunks still to be sent; used to resume an upload
+    private Long documentId;
+}
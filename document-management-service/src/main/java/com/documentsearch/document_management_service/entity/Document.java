@@ -8,14 +8,21 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_tenant_digest", columnList = "tenantId, contentDigest"),
+        // Keyset pagination of listings, newest first, with and without a status filter
+        @Index(name = "idx_documents_tenant_uploaded", columnList = "tenantId, uploadedAt, id"),
+        @Index(name = "idx_documents_tenant_status_uploaded", columnList = "tenantId, status, uploadedAt, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Document {
 
+    // Pooled sequence (a table on MySQL) so inserts can be batched; IDENTITY disables JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "documents_seq")
+    @SequenceGenerator(name = "documents_seq", sequenceName = "documents_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -33,6 +40,15 @@ public class Document {
     @Column(nullable = false)
     private Long fileSize;
 
+    @Column
+    private Long storedSize; // bytes on disk after compression
+
+    @Column(length = 16)
+    private String storageCodec; // BlobCodec the file is stored with, e.g. NONE or DEFLATE
+
+    @Column(length = 64)
+    private String contentDigest; // SHA-256 of the content; the file is stored under this digest
+
     @Column(nullable = false)
     private String tenantId; // Tenant identifier for multi-tenancy
 
@@ -0,0 +1,35 @@
+package com.documentsearch.document_management_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An index message waiting to be published to RabbitMQ.
+ * Written in the same transaction as its Document and deleted once the broker has confirmed it.
+ */
+@Entity
+@Table(name = "outbox_messages")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    // Pooled like documents_seq so a batch upload's outbox rows are inserted in one JDBC batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_messages_seq")
+    @SequenceGenerator(name = "outbox_messages_seq", sequenceName = "outbox_messages_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long documentId;
+
+    @Column(nullable = false, length = 4000)
+    private String payload; // DocumentIndexMessage as JSON
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
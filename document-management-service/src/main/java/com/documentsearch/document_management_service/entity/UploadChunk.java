@@ -0,0 +1,46 @@
+package com.documentsearch.document_management_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chunk of an upload session. While writerId is set the chunk is being written in place and
+ * counts as missing; it is received once the write has passed its checksum and writerId is cleared.
+ */
+@Entity
+@Table(name = "upload_chunks",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"uploadId", "chunkIndex"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String uploadId;
+
+    @Column(nullable = false)
+    private Integer chunkIndex;
+
+    @Column(nullable = false)
+    private Integer size;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(length = 36)
+    private String writerId; // the request writing the chunk, null once received
+
+    @Column
+    private LocalDateTime writingSince; // when writerId took the chunk; a write older than the timeout may be taken over
+}
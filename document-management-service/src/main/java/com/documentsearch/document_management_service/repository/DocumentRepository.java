@@ -1,10 +1,50 @@
 package com.documentsearch.document_management_service.repository;
 
 import com.documentsearch.document_management_service.entity.Document;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
-}
 
+    Optional<Document> findByIdAndTenantId(Long id, String tenantId);
+
+    Optional<Document> findFirstByTenantIdAndContentDigestAndStatusOrderByIdAsc(
+            String tenantId, String contentDigest, String status);
+
+    List<Document> findByTenantIdAndContentDigestInAndStatus(
+            String tenantId, Collection<String> contentDigests, String status);
+
+    // Listing pages, newest first. Each page seeks past the last row of the previous one on
+    // (uploadedAt, id), so the cost does not grow with page depth as OFFSET would.
+
+    List<Document> findByTenantIdOrderByUploadedAtDescIdDesc(String tenantId, Pageable pageable);
+
+    List<Document> findByTenantIdAndStatusOrderByUploadedAtDescIdDesc(
+            String tenantId, String status, Pageable pageable);
+
+    @Query("SELECT d FROM Document d WHERE d.tenantId = :tenantId"
+            + " AND (d.uploadedAt < :uploadedAt OR (d.uploadedAt = :uploadedAt AND d.id < :id))"
+            + " ORDER BY d.uploadedAt DESC, d.id DESC")
+    List<Document> findPageAfter(@Param("tenantId") String tenantId,
+                                 @Param("uploadedAt") LocalDateTime uploadedAt,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+
+    @Query("SELECT d FROM Document d WHERE d.tenantId = :tenantId AND d.status = :status"
+            + " AND (d.uploadedAt < :uploadedAt OR (d.uploadedAt = :uploadedAt AND d.id < :id))"
+            + " ORDER BY d.uploadedAt DESC, d.id DESC")
+    List<Document> findPageAfterWithStatus(@Param("tenantId") String tenantId,
+                                           @Param("status") String status,
+                                           @Param("uploadedAt") LocalDateTime uploadedAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+}
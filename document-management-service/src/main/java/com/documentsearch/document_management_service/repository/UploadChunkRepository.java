@@ -0,0 +1,60 @@
+package com.documentsearch.document_management_service.repository;
+
+import com.documentsearch.document_management_service.entity.UploadChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, Long> {
+
+    /**
+     * Indexes of the chunks that have been received; chunks being written are not included
+     */
+    @Query("SELECT c.chunkIndex FROM UploadChunk c WHERE c.uploadId = :uploadId AND c.writerId IS NULL")
+    List<Integer> findChunkIndexes(@Param("uploadId") String uploadId);
+
+    /**
+     * Take an existing chunk row for a new write, unless another write that started after
+     * staleBefore still holds it. Returns 0 if there is no row or it is taken.
+     */
+    @Modifying
+    @Query("UPDATE UploadChunk c SET c.writerId = :writerId, c.writingSince = :now, c.size = :size, "
+            + "c.sha256 = :sha256, c.receivedAt = :now "
+            + "WHERE c.uploadId = :uploadId AND c.chunkIndex = :chunkIndex "
+            + "AND (c.writerId IS NULL OR c.writingSince < :staleBefore)")
+    int claim(@Param("uploadId") String uploadId, @Param("chunkIndex") Integer chunkIndex,
+              @Param("writerId") String writerId, @Param("size") Integer size, @Param("sha256") String sha256,
+              @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Mark a chunk received by the write holding it; returns 0 if that write no longer holds it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadChunk c SET c.writerId = NULL, c.writingSince = NULL, c.receivedAt = :now "
+            + "WHERE c.uploadId = :uploadId AND c.chunkIndex = :chunkIndex AND c.writerId = :writerId")
+    int markReceived(@Param("uploadId") String uploadId, @Param("chunkIndex") Integer chunkIndex,
+                     @Param("writerId") String writerId, @Param("now") LocalDateTime now);
+
+    /**
+     * Drop a chunk whose write failed, if that write still holds it, so it is reported missing
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadChunk c WHERE c.uploadId = :uploadId AND c.chunkIndex = :chunkIndex "
+            + "AND c.writerId = :writerId")
+    int release(@Param("uploadId") String uploadId, @Param("chunkIndex") Integer chunkIndex,
+                @Param("writerId") String writerId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadChunk c WHERE c.uploadId = :uploadId")
+    void deleteByUploadId(@Param("uploadId") String uploadId);
+}
@@ -0,0 +1,37 @@
+package com.documentsearch.document_management_service.repository;
+
+import com.documentsearch.document_management_service.entity.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    /**
+     * Load a session with a shared row lock, held until the surrounding transaction ends.
+     * Chunk writers hold it while copying into the assembled file, so they run alongside each
+     * other but never alongside a commit.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findByIdForShare(@Param("id") String id);
+
+    /**
+     * Load a session with an exclusive row lock; waits for chunk writers holding the shared lock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findByIdForUpdate(@Param("id") String id);
+
+    List<UploadSession> findByStatusAndCreatedAtBefore(String status, LocalDateTime createdBefore);
+
+    List<UploadSession> findByStatusAndCommitStartedAtBefore(String status, LocalDateTime commitStartedBefore);
+}
@@ -0,0 +1,515 @@
+package com.documentsearch.document_management_service.service;
+
+import com.documentsearch.document_management_service.dto.DocumentUploadResponse;
+import com.documentsearch.document_management_service.dto.UploadInitRequest;
+import com.documentsearch.document_management_service.dto.UploadSessionResponse;
+import com.documentsearch.document_management_service.entity.UploadChunk;
+import com.documentsearch.document_management_service.entity.UploadSession;
+import com.documentsearch.document_management_service.repository.UploadChunkRepository;
+import com.documentsearch.document_management_service.repository.UploadSessionRepository;
+import com.documentsearch.shared_models.storage.BlobStore;
+import com.documentsearch.shared_models.storage.StoredBlob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumable chunked uploads.
+ *
+ * A session fixes the file size and chunk size up front, so every chunk has a known offset.
+ * Chunks may arrive in any order and in parallel and are written straight into the target file
+ * at their offsets, hashed as the bytes arrive. Before writing, a request takes its chunk's row
+ * under a shared lock on the session row; until the write has passed its checksum the chunk
+ * counts as missing, so a failed write simply leaves it to be sent again. Commit takes the
+ * exclusive lock and only moves the session to COMMITTING when no chunk is missing, so no
+ * write is in progress while it hashes and moves the file. The Document is only created, and
+ * indexing only queued, on commit. A session left COMMITTING by a commit that died is recovered
+ * by the cleanup job once the commit timeout has passed.
+ */
+@Service
+@Slf4j
+public class ChunkedUploadService {
+
+    private static final String STATUS_OPEN = "OPEN";
+    private static final String STATUS_COMMITTING = "COMMITTING";
+    private static final String STATUS_COMMITTED = "COMMITTED";
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private UploadChunkRepository uploadChunkRepository;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private CompressionPolicy compressionPolicy;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${document.storage.path:./document-storage}")
+    private String storagePath;
+
+    @Value("${document.upload.max-file-size:5368709120}")
+    private long maxFileSize;
+
+    @Value("${document.upload.default-chunk-size:8388608}")
+    private int defaultChunkSize;
+
+    @Value("${document.upload.min-chunk-size:262144}")
+    private int minChunkSize;
+
+    @Value("${document.upload.max-chunk-size:33554432}")
+    private int maxChunkSize;
+
+    @Value("${document.upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    // A write still running after this long gives up its chunk, which another request may then take over
+    @Value("${document.upload.chunk-write-timeout-ms:600000}")
+    private long chunkWriteTimeoutMs;
+
+    // A commit still COMMITTING after this long is taken to have died, and the cleanup job recovers its session
+    @Value("${document.upload.commit-timeout-minutes:30}")
+    private long commitTimeoutMinutes;
+
+    /**
+     * Start an upload session and reserve its file
+     */
+    public UploadSessionResponse initiate(UploadInitRequest request, String tenantId) throws IOException {
+        if (tenantId == null || tenantId.trim().isEmpty()) {
+            throw new IllegalArgumentException("TenantId is required");
+        }
+        if (request.getFileName() == null || request.getFileName().trim().isEmpty()) {
+            throw new IllegalArgumentException("File must have a valid filename");
+        }
+        if (request.getFileSize() == null || request.getFileSize() <= 0) {
+            throw new IllegalArgumentException("File size must be positive");
+        }
+        if (request.getFileSize() > maxFileSize) {
+            throw new IllegalArgumentException("File size exceeds maximum allowed size of " + maxFileSize + " bytes");
+        }
+
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : defaultChunkSize;
+        if (chunkSize < minChunkSize || chunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("Chunk size must be between " + minChunkSize
+                    + " and " + maxChunkSize + " bytes");
+        }
+        long totalChunks = (request.getFileSize() + chunkSize - 1) / chunkSize;
+
+        Path uploadDirectory = uploadDirectory();
+        String uploadId = UUID.randomUUID().toString();
+        Path filePath = uploadDirectory.resolve(uploadId + ".part");
+
+        // Reserve the full length so positional writes never have to extend the file
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(1), request.getFileSize() - 1);
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(uploadId);
+        session.setTenantId(tenantId);
+        session.setFileName(request.getFileName());
+        session.setContentType(request.getContentType() != null
+                ? request.getContentType() : "application/octet-stream");
+        session.setFileSize(request.getFileSize());
+        session.setChunkSize(chunkSize);
+        session.setTotalChunks((int) totalChunks);
+        session.setFilePath(filePath.toAbsolutePath().toString());
+        session.setStatus(STATUS_OPEN);
+        session.setCreatedAt(LocalDateTime.now());
+        uploadSessionRepository.save(session);
+
+        log.info("Started chunked upload {} for {} ({} bytes, {} chunks) for tenant: {}",
+                uploadId, session.getFileName(), session.getFileSize(), totalChunks, tenantId);
+
+        return toResponse(session, missingChunks(session));
+    }
+
+    /**
+     * Write one chunk at its offset. Re-sending a chunk overwrites it, so a client can simply
+     * retry any chunk that failed or is reported missing. A chunk that fails its checksum stays
+     * missing until it is sent again; only one request at a time may write a given chunk.
+     */
+    public void writeChunk(String uploadId, String tenantId, int chunkIndex, long contentLength,
+                           String expectedSha256, InputStream body) throws IOException {
+        // Fails fast before the body is read; checked again under the lock before the file is touched
+        UploadSession session = getOpenSession(uploadId, tenantId);
+        Path uploadDirectory = uploadDirectory().toAbsolutePath();
+        if (!Paths.get(session.getFilePath()).startsWith(uploadDirectory)) {
+            // An earlier commit already moved the file into storage; only the commit can be retried
+            throw new IllegalStateException("Upload " + uploadId + " is already assembled, retry the commit");
+        }
+
+        if (chunkIndex < 0 || chunkIndex >= session.getTotalChunks()) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (session.getTotalChunks() - 1));
+        }
+        if (expectedSha256 == null || expectedSha256.isBlank()) {
+            throw new IllegalArgumentException("Chunk checksum header is required");
+        }
+
+        long offset = (long) chunkIndex * session.getChunkSize();
+        int expectedSize = (int) Math.min(session.getChunkSize(), session.getFileSize() - offset);
+        if (contentLength >= 0 && contentLength != expectedSize) {
+            throw new IllegalArgumentException("Chunk " + chunkIndex + " must be " + expectedSize + " bytes");
+        }
+
+        // Stop writing before the chunk could be taken over by another request
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(chunkWriteTimeoutMs);
+        String writerId = claimChunk(uploadId, uploadDirectory, chunkIndex, expectedSize,
+                expectedSha256.trim().toLowerCase());
+
+        boolean received = false;
+        try {
+            writeInPlace(Paths.get(session.getFilePath()), chunkIndex, offset, expectedSize,
+                    expectedSha256.trim(), body, deadline);
+            received = true;
+        } finally {
+            if (!received) {
+                releaseChunk(uploadId, chunkIndex, writerId);
+            }
+        }
+
+        if (uploadChunkRepository.markReceived(uploadId, chunkIndex, writerId, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Chunk " + chunkIndex + " of upload " + uploadId
+                    + " was taken over by another request, send it again");
+        }
+        log.debug("Stored chunk {} of upload {} ({} bytes at offset {})", chunkIndex, uploadId, expectedSize, offset);
+    }
+
+    /**
+     * Current state of a session, including the chunks still missing
+     */
+    public UploadSessionResponse getStatus(String uploadId, String tenantId) {
+        UploadSession session = getSession(uploadId, tenantId);
+        List<Integer> missing = STATUS_OPEN.equals(session.getStatus()) ? missingChunks(session) : List.of();
+        return toResponse(session, missing);
+    }
+
+    /**
+     * Complete an upload once every chunk has been received: the file is moved into
+     * content-addressed storage, the Document row is created and the indexing message queued in the outbox
+     */
+    public DocumentUploadResponse commit(String uploadId, String tenantId) throws IOException {
+        // Kept to milliseconds so it reads back unchanged; it tells this commit apart from a later one
+        LocalDateTime commitStartedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        // The exclusive lock waits for chunks being taken; later writers find the session COMMITTING
+        UploadSession session = transactionTemplate.execute(status -> {
+            UploadSession locked = uploadSessionRepository.findByIdForUpdate(uploadId)
+                    .filter(candidate -> candidate.getTenantId().equals(tenantId))
+                    .orElseThrow(() -> new NoSuchElementException("Upload " + uploadId + " not found"));
+            if (!STATUS_OPEN.equals(locked.getStatus())) {
+                throw new IllegalStateException("Upload " + uploadId + " is not open");
+            }
+            List<Integer> missing = missingChunks(locked);
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("Upload is missing " + missing.size() + " chunk(s): " + missing);
+            }
+            locked.setStatus(STATUS_COMMITTING);
+            locked.setCommitStartedAt(commitStartedAt);
+            return uploadSessionRepository.save(locked);
+        });
+
+        StoredBlob blob = null;
+        try {
+            // Hashes the assembled file and moves it into content-addressed storage
+            Path assembled = Paths.get(session.getFilePath());
+            blob = blobStore.putFile(assembled, compressionPolicy.codecFor(session.getFileName(), assembled));
+            log.info("Chunked upload {} assembled at: {}", uploadId, blob.location());
+
+            // Recorded at once, so a commit that dies from here on can be retried from the stored blob
+            String blobLocation = blob.location();
+            transactionTemplate.executeWithoutResult(status -> {
+                UploadSession locked = lockOwnCommit(uploadId, commitStartedAt);
+                locked.setFilePath(blobLocation);
+                uploadSessionRepository.save(locked);
+            });
+
+            // The Document and the COMMITTED session are saved together or not at all
+            StoredBlob storedBlob = blob;
+            return transactionTemplate.execute(status -> {
+                UploadSession locked = lockOwnCommit(uploadId, commitStartedAt);
+                DocumentUploadResponse response = documentService.registerDocument(
+                        locked.getFileName(), storedBlob, locked.getContentType(), tenantId);
+                locked.setStatus(STATUS_COMMITTED);
+                locked.setCommitStartedAt(null);
+                locked.setDocumentId(response.getDocumentId());
+                uploadSessionRepository.save(locked);
+                uploadChunkRepository.deleteByUploadId(uploadId);
+                return response;
+            });
+        } catch (IOException | RuntimeException e) {
+            reopenFailedCommit(uploadId, commitStartedAt, blob);
+            throw e;
+        }
+    }
+
+    /**
+     * Remove sessions that were never committed, together with their partial files, and recover
+     * sessions whose commit died before finishing
+     */
+    @Scheduled(fixedDelayString = "${document.upload.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void expireAbandonedSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusHours(sessionTtlHours);
+        for (UploadSession candidate : uploadSessionRepository.findByStatusAndCreatedAtBefore(STATUS_OPEN, cutoff)) {
+            // Locked and checked again, as a commit may have started since the query
+            uploadSessionRepository.findByIdForUpdate(candidate.getId())
+                    .filter(session -> STATUS_OPEN.equals(session.getStatus()))
+                    .ifPresent(this::expire);
+        }
+
+        LocalDateTime commitCutoff = now.minusMinutes(commitTimeoutMinutes);
+        for (UploadSession candidate : uploadSessionRepository.findByStatusAndCommitStartedAtBefore(STATUS_COMMITTING, commitCutoff)) {
+            uploadSessionRepository.findByIdForUpdate(candidate.getId())
+                    .filter(session -> STATUS_COMMITTING.equals(session.getStatus()))
+                    .filter(session -> session.getCommitStartedAt().isBefore(commitCutoff))
+                    .ifPresent(this::recoverStaleCommit);
+        }
+    }
+
+    /**
+     * The file of a session stuck in COMMITTING is either still in the upload directory or already
+     * recorded as a stored blob, and the session is reopened so the client can commit again. Only
+     * when the file left the upload directory without its new location being recorded is there
+     * nothing left to commit, and the session is expired.
+     */
+    private void recoverStaleCommit(UploadSession session) {
+        Path filePath = Paths.get(session.getFilePath());
+        if (isPartialFile(filePath) && !Files.exists(filePath)) {
+            log.warn("Upload {} lost its file during a commit that did not finish", session.getId());
+            expire(session);
+            return;
+        }
+        session.setStatus(STATUS_OPEN);
+        session.setCommitStartedAt(null);
+        uploadSessionRepository.save(session);
+        log.info("Reopened upload {} for tenant {} after its commit did not finish", session.getId(), session.getTenantId());
+    }
+
+    private void expire(UploadSession session) {
+        try {
+            // Only partial files are removed; a session may already point at a shared blob
+            Path filePath = Paths.get(session.getFilePath());
+            if (isPartialFile(filePath)) {
+                Files.deleteIfExists(filePath);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete partial file of upload {}: {}", session.getId(), e.getMessage());
+        }
+        uploadChunkRepository.deleteByUploadId(session.getId());
+        uploadSessionRepository.delete(session);
+        log.info("Expired abandoned upload {} for tenant: {}", session.getId(), session.getTenantId());
+    }
+
+    private boolean isPartialFile(Path filePath) {
+        try {
+            return filePath.startsWith(uploadDirectory().toAbsolutePath());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Lock a session this commit moved to COMMITTING; empty once the cleanup job has recovered it
+     */
+    private Optional<UploadSession> findOwnCommit(String uploadId, LocalDateTime commitStartedAt) {
+        return uploadSessionRepository.findByIdForUpdate(uploadId)
+                .filter(session -> STATUS_COMMITTING.equals(session.getStatus()))
+                .filter(session -> commitStartedAt.equals(session.getCommitStartedAt()));
+    }
+
+    private UploadSession lockOwnCommit(String uploadId, LocalDateTime commitStartedAt) {
+        return findOwnCommit(uploadId, commitStartedAt).orElseThrow(() -> new IllegalStateException("Commit of upload " + uploadId
+                        + " took too long and was abandoned, commit again"));
+    }
+
+    /**
+     * Reopen the session (pointing at the stored blob, if the file got that far) so the commit can be retried
+     */
+    private void reopenFailedCommit(String uploadId, LocalDateTime commitStartedAt, StoredBlob blob) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    findOwnCommit(uploadId, commitStartedAt).ifPresent(locked -> {
+                        if (blob != null) {
+                            locked.setFilePath(blob.location());
+                        }
+                        locked.setStatus(STATUS_OPEN);
+                        locked.setCommitStartedAt(null);
+                        uploadSessionRepository.save(locked);
+                    }));
+        } catch (RuntimeException e) {
+            // Left COMMITTING; the cleanup job reopens it once the commit timeout has passed
+            log.warn("Could not reopen upload {} after a failed commit: {}", uploadId, e.getMessage());
+        }
+    }
+
+    /**
+     * Take a chunk for writing, holding the shared lock on the session so that a commit cannot
+     * start meanwhile. From here until the write is verified the chunk is reported missing.
+     */
+    private String claimChunk(String uploadId, Path uploadDirectory, int chunkIndex, int size, String sha256) {
+        String writerId = UUID.randomUUID().toString();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                UploadSession session = uploadSessionRepository.findByIdForShare(uploadId)
+                        .orElseThrow(() -> new NoSuchElementException("Upload " + uploadId + " not found"));
+                if (!STATUS_OPEN.equals(session.getStatus())
+                        || !Paths.get(session.getFilePath()).startsWith(uploadDirectory)) {
+                    throw new IllegalStateException("Upload " + uploadId + " is not open");
+                }
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime staleBefore = now.minus(Duration.ofMillis(chunkWriteTimeoutMs));
+                if (uploadChunkRepository.claim(uploadId, chunkIndex, writerId, size, sha256, now, staleBefore) == 0) {
+                    // No row yet, or it is held by another write; the unique constraint tells which
+                    uploadChunkRepository.saveAndFlush(
+                            new UploadChunk(null, uploadId, chunkIndex, size, sha256, now, writerId, now));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Chunk " + chunkIndex + " of upload " + uploadId
+                    + " is already being written, retry later");
+        }
+        return writerId;
+    }
+
+    /**
+     * Write a chunk's bytes at its offset as they arrive and verify their size and SHA-256
+     */
+    private void writeInPlace(Path file, int chunkIndex, long offset, int expectedSize, String expectedSha256,
+                              InputStream body, long deadline) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[IO_BUFFER_SIZE];
+        int written = 0;
+        try (FileChannel target = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = body.read(buffer, 0, Math.min(buffer.length, expectedSize - written + 1))) != -1) {
+                if (written + read > expectedSize) {
+                    throw new IllegalArgumentException("Chunk " + chunkIndex + " must be " + expectedSize + " bytes");
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IllegalStateException("Chunk " + chunkIndex + " was not received within "
+                            + chunkWriteTimeoutMs + " ms, send it again");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                while (bytes.hasRemaining()) {
+                    target.write(bytes, offset + written + bytes.position());
+                }
+                written += read;
+            }
+        }
+
+        if (written != expectedSize) {
+            throw new IllegalArgumentException("Chunk " + chunkIndex + " must be " + expectedSize
+                    + " bytes, received " + written);
+        }
+        String actualSha256 = HexFormat.of().formatHex(digest.digest());
+        if (!actualSha256.equalsIgnoreCase(expectedSha256)) {
+            throw new IllegalArgumentException("Checksum mismatch for chunk " + chunkIndex);
+        }
+    }
+
+    /**
+     * Give up a chunk whose write failed; its bytes in the file are no longer trusted
+     */
+    private void releaseChunk(String uploadId, int chunkIndex, String writerId) {
+        try {
+            uploadChunkRepository.release(uploadId, chunkIndex, writerId);
+        } catch (RuntimeException e) {
+            // The chunk stays taken until the write timeout; the failure being reported matters more
+            log.warn("Could not release chunk {} of upload {}: {}", chunkIndex, uploadId, e.getMessage());
+        }
+    }
+
+    private UploadSession getSession(String uploadId, String tenantId) {
+        return uploadSessionRepository.findById(uploadId)
+                .filter(session -> session.getTenantId().equals(tenantId))
+                .orElseThrow(() -> new NoSuchElementException("Upload " + uploadId + " not found"));
+    }
+
+    private UploadSession getOpenSession(String uploadId, String tenantId) {
+        UploadSession session = getSession(uploadId, tenantId);
+        if (!STATUS_OPEN.equals(session.getStatus())) {
+            throw new IllegalStateException("Upload " + uploadId + " is not open");
+        }
+        return session;
+    }
+
+    private List<Integer> missingChunks(UploadSession session) {
+        Set<Integer> received = new HashSet<>(uploadChunkRepository.findChunkIndexes(session.getId()));
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < session.getTotalChunks(); i++) {
+            if (!received.contains(i)) {
+                missing.add(i);
+            }
+        }
+        return missing;
+    }
+
+    private Path uploadDirectory() throws IOException {
+        Path uploadDirectory = Paths.get(storagePath, "uploads");
+        if (!Files.exists(uploadDirectory)) {
+            Files.createDirectories(uploadDirectory);
+        }
+        return uploadDirectory;
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session, List<Integer> missingChunks) {
+        return new UploadSessionResponse(
+                session.getId(),
+                session.getFileName(),
+                session.getFileSize(),
+                session.getChunkSize(),
+                session.getTotalChunks(),
+                session.getStatus(),
+                missingChunks,
+                session.getDocumentId()
+        );
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.documentsearch.document_management_service.service;
+
+import com.documentsearch.shared_models.storage.BlobCodec;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Decides whether a document is stored compressed.
+ * Only configured file types are considered, and only if a leading sample of the content
+ * compresses well enough; already-compressed payloads (images, zip-based formats, PDFs with
+ * compressed streams) are stored as they are.
+ */
+@Component
+@Slf4j
+public class CompressionPolicy {
+
+    @Value("${document.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${document.compression.file-types:txt,csv,tsv,json,xml,html,htm,md,log,rtf,doc,xls,ppt}")
+    private String[] fileTypes;
+
+    @Value("${document.compression.sample-size:65536}")
+    private int sampleSize;
+
+    // Compress only if the sample shrinks to at most this fraction of its size
+    @Value("${document.compression.max-ratio:0.8}")
+    private double maxRatio;
+
+    private Set<String> compressibleTypes;
+
+    @PostConstruct
+    void init() {
+        compressibleTypes = Stream.of(fileTypes)
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .filter(type -> !type.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Choose the codec for content that is about to be streamed; the stream is read up to the
+     * sample size and reset, so it must have been opened with a buffer of at least that size
+     */
+    public BlobCodec codecFor(String fileName, BufferedInputStream content) throws IOException {
+        if (!isCandidate(fileName)) {
+            return BlobCodec.NONE;
+        }
+        content.mark(sampleSize);
+        byte[] sample = content.readNBytes(sampleSize);
+        content.reset();
+        return codecForSample(fileName, sample);
+    }
+
+    /**
+     * Choose the codec for a file already on disk
+     */
+    public BlobCodec codecFor(String fileName, Path file) throws IOException {
+        if (!isCandidate(fileName)) {
+            return BlobCodec.NONE;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return codecForSample(fileName, in.readNBytes(sampleSize));
+        }
+    }
+
+    private boolean isCandidate(String fileName) {
+        if (!enabled || fileName == null) {
+            return false;
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && compressibleTypes.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private BlobCodec codecForSample(String fileName, byte[] sample) {
+        if (sample.length == 0) {
+            return BlobCodec.NONE;
+        }
+        double ratio = (double) BlobCodec.DEFLATE.encodedSize(sample, sample.length) / sample.length;
+        log.debug("Sample of {} compresses to {}", fileName, String.format("%.2f", ratio));
+        return ratio <= maxRatio ? BlobCodec.DEFLATE : BlobCodec.NONE;
+    }
+}
@@ -0,0 +1,43 @@
+package com.documentsearch.document_management_service.service;
+
+import com.documentsearch.document_management_service.entity.Document;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a document listing: the (uploadedAt, id) of the last row of a page.
+ * Handed to clients as an opaque URL-safe token.
+ */
+public record DocumentCursor(LocalDateTime uploadedAt, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static DocumentCursor after(Document document) {
+        return new DocumentCursor(document.getUploadedAt(), document.getId());
+    }
+
+    public String encode() {
+        String value = uploadedAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a token produced by encode(); anything else is rejected with IllegalArgumentException
+     */
+    public static DocumentCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new DocumentCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
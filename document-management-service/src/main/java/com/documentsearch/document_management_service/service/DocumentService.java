@@ -1,23 +1,45 @@
 package com.documentsearch.document_management_service.service;
 
 import com.documentsearch.document_management_service.dto.DocumentIndexMessage;
+import com.documentsearch.document_management_service.dto.DocumentPageResponse;
+import com.documentsearch.document_management_service.dto.DocumentSummary;
 import com.documentsearch.document_management_service.dto.DocumentUploadResponse;
 import com.documentsearch.document_management_service.entity.Document;
 import com.documentsearch.document_management_service.repository.DocumentRepository;
+import com.documentsearch.shared_models.storage.BlobCodec;
+import com.documentsearch.shared_models.storage.BlobStore;
+import com.documentsearch.shared_models.storage.StoredBlob;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -27,81 +49,297 @@ public class DocumentService {
     private DocumentRepository documentRepository;
 
     @Autowired
-    private RabbitMQPublisher rabbitMQPublisher;
+    private IndexOutbox indexOutbox;
 
-    @Value("${document.storage.path:./document-storage}")
-    private String storagePath;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-    public DocumentUploadResponse uploadDocument(MultipartFile file, String tenantId) {
-        try {
-            // Validate file
-            if (file.isEmpty()) {
-                throw new IllegalArgumentException("File is empty");
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private CompressionPolicy compressionPolicy;
+
+    @Autowired
+    @Qualifier("documentStorageExecutor")
+    private Executor documentStorageExecutor;
+
+    /**
+     * Store a single document from a multipart/form-data body as it is read.
+     *
+     * The "file" part is written straight to the blob store while its size and digest are
+     * computed; nothing is spooled to a temporary file first. The tenant comes from the query
+     * string or an upload token, never from the body: a request with a "tenantId" part is rejected.
+     */
+    public DocumentUploadResponse uploadDocument(InputStream body, String boundary, String tenantId)
+            throws IOException {
+        MultipartStream multipart = new MultipartStream(body, boundary);
+        StoredBlob blob = null;
+        String originalFilename = null;
+        String contentType = null;
+
+        MultipartStream.Part part;
+        while ((part = multipart.nextPart()) != null) {
+            if ("tenantId".equals(part.name())) {
+                throw new IllegalArgumentException("TenantId must not be sent in the request body");
+            } else if ("file".equals(part.name())) {
+                if (blob != null) {
+                    throw new IllegalArgumentException("Only one file can be uploaded per request");
+                }
+                originalFilename = part.fileName();
+                if (originalFilename == null || originalFilename.trim().isEmpty()) {
+                    throw new IllegalArgumentException("File must have a valid filename");
+                }
+
+                // Stream to content-addressed storage, hashing on the way to disk
+                BufferedInputStream content = new BufferedInputStream(part.body(), compressionPolicy.getSampleSize());
+                contentType = detectContentType(part.contentType(), originalFilename, content);
+                blob = blobStore.put(content, compressionPolicy.codecFor(originalFilename, content));
+                log.info("File saved to: {} (sha256 {})", blob.location(), blob.digest());
             }
+        }
+
+        if (blob == null || blob.size() == 0) {
+            throw new IllegalArgumentException("File is required and cannot be empty");
+        }
+        if (tenantId == null || tenantId.trim().isEmpty()) {
+            throw new IllegalArgumentException("TenantId is required");
+        }
+
+        return registerDocument(originalFilename, blob, contentType, tenantId);
+    }
 
-            // Validate tenantId
-            if (tenantId == null || tenantId.trim().isEmpty()) {
-                throw new IllegalArgumentException("TenantId is required");
+    /**
+     * Record a stored blob as a Document and queue it for indexing.
+     * Used for single-request uploads and when a chunked upload is committed.
+     *
+     * If the tenant already has an indexed document with the same content, the index message
+     * names it as the source so the indexer reuses its extracted text instead of parsing again.
+     */
+    public DocumentUploadResponse registerDocument(String originalFilename, StoredBlob blob,
+                                                   String contentType, String tenantId) {
+        // Save metadata to database
+        Document document = newDocument(originalFilename, blob, contentType, tenantId);
+
+        Long sourceDocumentId = documentRepository
+                .findFirstByTenantIdAndContentDigestAndStatusOrderByIdAsc(tenantId, blob.digest(), "INDEXED")
+                .map(Document::getId)
+                .orElse(null);
+
+        // Document row and its index message commit together; OutboxRelay publishes the message
+        Document saved = transactionTemplate.execute(status -> {
+            Document row = documentRepository.save(document);
+            indexOutbox.enqueue(List.of(indexMessage(row, sourceDocumentId)));
+            return row;
+        });
+        log.info("Document metadata saved to database with ID: {} for tenant: {}", saved.getId(), tenantId);
+        if (sourceDocumentId != null) {
+            log.info("Document {} has the same content as indexed document {}, reusing its extracted text",
+                    saved.getId(), sourceDocumentId);
+        }
+
+        return uploadResponse(saved);
+    }
+
+    /**
+     * Upload several files in one request.
+     * Files are stored concurrently, their metadata is inserted with JDBC batching and all index
+     * messages are written to the outbox in the same transaction.
+     */
+    public List<DocumentUploadResponse> uploadDocuments(List<MultipartFile> files, String tenantId) {
+        if (tenantId == null || tenantId.trim().isEmpty()) {
+            throw new IllegalArgumentException("TenantId is required");
+        }
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                throw new IllegalArgumentException("File " + file.getOriginalFilename() + " is empty");
             }
+            if (file.getOriginalFilename() == null || file.getOriginalFilename().trim().isEmpty()) {
+                throw new IllegalArgumentException("Every file must have a valid filename");
+            }
+        }
+
+        List<CompletableFuture<StoredBlob>> stored = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return storeContent(file);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, documentStorageExecutor))
+                .toList();
 
-            // Create storage directory if not exists
-            Path storageDirectory = Paths.get(storagePath);
-            if (!Files.exists(storageDirectory)) {
-                Files.createDirectories(storageDirectory);
+        List<Document> documents = new ArrayList<>(files.size());
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                MultipartFile file = files.get(i);
+                documents.add(newDocument(file.getOriginalFilename(), stored.get(i).join(),
+                        file.getContentType(), tenantId));
             }
+        } catch (CompletionException e) {
+            log.error("Error saving file", e.getCause());
+            throw new RuntimeException("Failed to store file", e.getCause());
+        }
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String uniqueFilename = UUID.randomUUID().toString() + "_" + originalFilename;
-            Path filePath = storageDirectory.resolve(uniqueFilename);
-
-            // Save file to local filesystem
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            log.info("File saved to: {}", filePath.toAbsolutePath());
-
-            // Extract file type from filename
-            String fileType = extractFileType(originalFilename);
-
-            // Save metadata to database
-            Document document = new Document();
-            document.setFileName(originalFilename);
-            document.setFilePath(filePath.toAbsolutePath().toString());
-            document.setContentType(file.getContentType());
-            document.setFileType(fileType);
-            document.setFileSize(file.getSize());
-            document.setTenantId(tenantId);
-            document.setUploadedAt(LocalDateTime.now());
-            document.setStatus("UPLOADED");
-
-            document = documentRepository.save(document);
-            log.info("Document metadata saved to database with ID: {} for tenant: {}", document.getId(), tenantId);
-
-            // Publish message to RabbitMQ for async processing
-            DocumentIndexMessage message = new DocumentIndexMessage(
-                    document.getId(),
-                    document.getFileName(),
-                    document.getFilePath(),
-                    document.getContentType(),
-                    document.getFileSize(),
-                    document.getUploadedAt()
-            );
-
-            rabbitMQPublisher.publishDocumentIndexMessage(message);
-            log.info("Document index message published to RabbitMQ for document ID: {}", document.getId());
-
-            // Return response
-            return new DocumentUploadResponse(
-                    document.getId(),
-                    document.getFileName(),
-                    document.getStatus(),
-                    document.getUploadedAt(),
-                    "Document uploaded successfully and queued for indexing"
-            );
-
-        } catch (IOException e) {
-            log.error("Error saving file", e);
-            throw new RuntimeException("Failed to store file", e);
+        // One lookup for all digests the tenant already has indexed
+        Set<String> digests = documents.stream().map(Document::getContentDigest).collect(Collectors.toSet());
+        Map<String, Long> sourceDocumentIds = new HashMap<>();
+        for (Document existing : documentRepository.findByTenantIdAndContentDigestInAndStatus(tenantId, digests, "INDEXED")) {
+            sourceDocumentIds.merge(existing.getContentDigest(), existing.getId(), Math::min);
         }
+
+        List<Document> saved = transactionTemplate.execute(status -> {
+            List<Document> rows = documentRepository.saveAll(documents);
+            indexOutbox.enqueue(rows.stream()
+                    .map(document -> indexMessage(document, sourceDocumentIds.get(document.getContentDigest())))
+                    .toList());
+            return rows;
+        });
+        log.info("Saved metadata of {} documents for tenant: {}", saved.size(), tenantId);
+
+        return saved.stream().map(this::uploadResponse).toList();
+    }
+
+    /**
+     * Write an uploaded file to the blob store, compressed if the compression policy says so
+     */
+    private StoredBlob storeContent(MultipartFile file) throws IOException {
+        try (BufferedInputStream content = new BufferedInputStream(file.getInputStream(),
+                compressionPolicy.getSampleSize())) {
+            BlobCodec codec = compressionPolicy.codecFor(file.getOriginalFilename(), content);
+            return blobStore.put(content, codec);
+        }
+    }
+
+    /**
+     * A tenant's document; documents of other tenants are reported as not found
+     */
+    public Document getDocument(Long documentId, String tenantId) {
+        return documentRepository.findByIdAndTenantId(documentId, tenantId)
+                .orElseThrow(() -> new NoSuchElementException("Document not found: " + documentId));
+    }
+
+    /**
+     * One page of a tenant's documents, newest first, optionally filtered by status.
+     * The page after the cursor is found by an index seek, so deep pages cost the same as the first.
+     */
+    public DocumentPageResponse listDocuments(String tenantId, String status, String after, int limit) {
+        // One extra row tells whether another page follows without a count query
+        Pageable pageable = PageRequest.ofSize(limit + 1);
+        List<Document> rows;
+        if (after == null) {
+            rows = status == null
+                    ? documentRepository.findByTenantIdOrderByUploadedAtDescIdDesc(tenantId, pageable)
+                    : documentRepository.findByTenantIdAndStatusOrderByUploadedAtDescIdDesc(tenantId, status, pageable);
+        } else {
+            DocumentCursor cursor = DocumentCursor.decode(after);
+            rows = status == null
+                    ? documentRepository.findPageAfter(tenantId, cursor.uploadedAt(), cursor.id(), pageable)
+                    : documentRepository.findPageAfterWithStatus(
+                            tenantId, status, cursor.uploadedAt(), cursor.id(), pageable);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<Document> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? DocumentCursor.after(page.get(page.size() - 1)).encode() : null;
+        return new DocumentPageResponse(page.stream().map(this::toSummary).toList(), nextCursor);
+    }
+
+    public DocumentSummary toSummary(Document document) {
+        return new DocumentSummary(
+                document.getId(),
+                document.getFileName(),
+                document.getContentType(),
+                document.getFileSize(),
+                document.getStatus(),
+                document.getUploadedAt(),
+                document.getIndexedAt()
+        );
+    }
+
+    /**
+     * Open a document's original content, decoding it if it is stored compressed
+     */
+    public InputStream openContent(Document document) throws IOException {
+        if (isInBlobStore(document)) {
+            return blobStore.open(document.getContentDigest());
+        }
+        // Stored before compression was recorded: uncompressed, at the recorded path
+        return Files.newInputStream(Paths.get(document.getFilePath()));
+    }
+
+    /**
+     * The file holding a document's stored bytes, if they are on the local filesystem
+     */
+    public Optional<Path> localFile(Document document) {
+        if (isInBlobStore(document)) {
+            return blobStore.localFile(document.getContentDigest());
+        }
+        Path path = Paths.get(document.getFilePath());
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Documents that record a storage codec were written through the current BlobStore layout;
+     * older ones are read from their recorded filePath
+     */
+    private boolean isInBlobStore(Document document) {
+        return document.getContentDigest() != null && document.getStorageCodec() != null;
+    }
+
+    /**
+     * The declared part type unless it is missing or generic, otherwise a guess from the
+     * leading bytes or the file name. Reads only what the stream has buffered and resets it.
+     */
+    private String detectContentType(String declared, String fileName, BufferedInputStream content) throws IOException {
+        if (declared != null && !declared.isBlank() && !MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(declared)) {
+            return declared;
+        }
+        String detected = URLConnection.guessContentTypeFromStream(content);
+        if (detected == null) {
+            detected = URLConnection.guessContentTypeFromName(fileName);
+        }
+        return detected != null ? detected : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private Document newDocument(String originalFilename, StoredBlob blob,
+                                 String contentType, String tenantId) {
+        Document document = new Document();
+        document.setFileName(originalFilename);
+        document.setFilePath(blob.location());
+        document.setContentDigest(blob.digest());
+        document.setContentType(contentType != null ? contentType : "application/octet-stream");
+        document.setFileType(extractFileType(originalFilename));
+        document.setFileSize(blob.size());
+        document.setStoredSize(blob.storedSize());
+        document.setStorageCodec(blob.codec().name());
+        document.setTenantId(tenantId);
+        document.setUploadedAt(LocalDateTime.now());
+        document.setStatus("UPLOADED");
+        return document;
+    }
+
+    private DocumentIndexMessage indexMessage(Document document, Long sourceDocumentId) {
+        return new DocumentIndexMessage(
+                document.getId(),
+                document.getFileName(),
+                document.getFilePath(),
+                document.getContentType(),
+                document.getFileSize(),
+                document.getUploadedAt(),
+                document.getContentDigest(),
+                sourceDocumentId
+        );
+    }
+
+    private DocumentUploadResponse uploadResponse(Document document) {
+        return new DocumentUploadResponse(
+                document.getId(),
+                document.getFileName(),
+                document.getStatus(),
+                document.getUploadedAt(),
+                "Document uploaded successfully and queued for indexing"
+        );
     }
 
     /**
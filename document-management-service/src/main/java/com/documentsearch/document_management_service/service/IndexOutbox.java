@@ -0,0 +1,67 @@
+package com.documentsearch.document_management_service.service;
+
+import com.documentsearch.document_management_service.dto.DocumentIndexMessage;
+import com.documentsearch.document_management_service.entity.OutboxMessage;
+import com.documentsearch.document_management_service.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transactional outbox for document index messages.
+ * Messages are stored with the Document rows they describe and published later by OutboxRelay,
+ * so an upload never waits on the broker and a message is never lost when the broker is down.
+ */
+@Service
+@Slf4j
+public class IndexOutbox {
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Store messages in the caller's transaction; the relay is woken once it commits
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(List<DocumentIndexMessage> messages) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> rows = new ArrayList<>(messages.size());
+        for (DocumentIndexMessage message : messages) {
+            rows.add(new OutboxMessage(null, message.getDocumentId(), toJson(message), now));
+        }
+        outboxMessageRepository.saveAll(rows);
+        log.debug("Queued {} index message(s) in the outbox", rows.size());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+        });
+    }
+
+    private String toJson(DocumentIndexMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize index message for document "
+                    + message.getDocumentId(), e);
+        }
+    }
+}
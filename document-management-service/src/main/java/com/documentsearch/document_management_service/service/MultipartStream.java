@@ -0,0 +1,235 @@
+package com.documentsearch.document_management_service.service;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incremental multipart/form-data parser.
+ *
+ * Parts are handed out one at a time with a body stream that reads directly from the request,
+ * so a file part can be written to its destination as it arrives instead of being spooled by
+ * the servlet container first. Only a fixed-size buffer is held in memory. Moving to the next
+ * part skips whatever is left of the current one.
+ */
+public class MultipartStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int head;
+    private int tail;
+    private boolean eof;
+    private PartInputStream currentBody;
+    private boolean finished;
+
+    /**
+     * A part of the body: its headers and a stream over its content
+     */
+    public record Part(String name, String fileName, String contentType, InputStream body) {
+    }
+
+    public MultipartStream(InputStream in, String boundary) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        if (delimiter.length > BUFFER_SIZE / 2) {
+            throw new IllegalArgumentException("Multipart boundary is too long");
+        }
+        // The first boundary is not preceded by a line break; pretend it is so every delimiter looks alike
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        tail = 2;
+    }
+
+    /**
+     * Advance to the next part, or return null after the closing boundary
+     */
+    public Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        // Skip the preamble or the rest of the previous part
+        PartInputStream previous = currentBody != null ? currentBody : new PartInputStream();
+        previous.drain();
+        head += delimiter.length;
+
+        if (!fill(2)) {
+            throw malformed("Unexpected end of multipart body");
+        }
+        if (buffer[head] == '-' && buffer[head + 1] == '-') {
+            finished = true;
+            currentBody = null;
+            return null;
+        }
+
+        // Transport padding, then the line break before the part headers
+        String rest = readLine();
+        if (!rest.isBlank()) {
+            throw malformed("Malformed multipart boundary line");
+        }
+
+        HttpHeaders headers = readHeaders();
+        String disposition = headers.getFirst(HttpHeaders.CONTENT_DISPOSITION);
+        if (disposition == null) {
+            throw malformed("Multipart part without Content-Disposition");
+        }
+        ContentDisposition contentDisposition = ContentDisposition.parse(disposition);
+
+        currentBody = new PartInputStream();
+        return new Part(contentDisposition.getName(), contentDisposition.getFilename(),
+                headers.getFirst(HttpHeaders.CONTENT_TYPE), currentBody);
+    }
+
+    private HttpHeaders readHeaders() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        int headerBytes = 0;
+        String line;
+        while (!(line = readLine()).isEmpty()) {
+            headerBytes += line.length() + 2;
+            if (headerBytes > MAX_HEADER_BYTES) {
+                throw malformed("Multipart part headers are too large");
+            }
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw malformed("Malformed multipart header: " + line);
+            }
+            headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+        }
+        return headers;
+    }
+
+    /**
+     * Read up to the next CRLF, which is consumed but not returned
+     */
+    private String readLine() throws IOException {
+        int searchFrom = head;
+        while (true) {
+            for (int i = searchFrom; i + 1 < tail; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    String line = new String(buffer, head, i - head, StandardCharsets.UTF_8);
+                    head = i + 2;
+                    return line;
+                }
+            }
+            if (tail - head >= MAX_HEADER_BYTES) {
+                throw malformed("Multipart header line is too long");
+            }
+            int scanned = tail - head;
+            if (!fill(scanned + 1)) {
+                throw malformed("Unexpected end of multipart body");
+            }
+            searchFrom = head + Math.max(0, scanned - 1);
+        }
+    }
+
+    /**
+     * Make at least n bytes available from head, reading more input as needed.
+     * Returns false if the input ends first.
+     */
+    private boolean fill(int n) throws IOException {
+        if (tail - head >= n) {
+            return true;
+        }
+        if (n > buffer.length) {
+            throw new IllegalStateException("Cannot buffer " + n + " bytes");
+        }
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        while (tail < n && !eof) {
+            int read = in.read(buffer, tail, buffer.length - tail);
+            if (read == -1) {
+                eof = true;
+            } else {
+                tail += read;
+            }
+        }
+        return tail - head >= n;
+    }
+
+    /**
+     * Position of the delimiter in the buffered bytes, or -1
+     */
+    private int findDelimiter() {
+        int last = tail - delimiter.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static IOException malformed(String message) {
+        return new IOException(message);
+    }
+
+    /**
+     * Content of the current part, ending just before the next delimiter
+     */
+    private class PartInputStream extends InputStream {
+
+        private boolean ended;
+        // Bytes from head known to be part content, and whether the delimiter follows them
+        private int content;
+        private boolean delimiterNext;
+        private final byte[] single = new byte[1];
+
+        @Override
+        public int read() throws IOException {
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (ended || currentBody != this && currentBody != null) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            while (content == 0) {
+                if (delimiterNext) {
+                    ended = true;
+                    return -1;
+                }
+                int delimiterAt = findDelimiter();
+                if (delimiterAt >= 0) {
+                    content = delimiterAt - head;
+                    delimiterNext = true;
+                } else {
+                    // Everything except a possible partial delimiter at the end of the buffer
+                    content = Math.max(0, tail - head - (delimiter.length - 1));
+                    if (content == 0 && !fill(tail - head + 1)) {
+                        throw malformed("Unexpected end of multipart body");
+                    }
+                }
+            }
+            int count = Math.min(content, length);
+            System.arraycopy(buffer, head, target, offset, count);
+            head += count;
+            content -= count;
+            return count;
+        }
+
+        void drain() throws IOException {
+            byte[] scratch = new byte[8192];
+            while (read(scratch, 0, scratch.length) != -1) {
+                // discard
+            }
+        }
+    }
+}
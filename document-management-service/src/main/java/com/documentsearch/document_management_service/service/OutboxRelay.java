@@ -0,0 +1,159 @@
+package com.documentsearch.document_management_service.service;
+
+import com.documentsearch.document_management_service.dto.DocumentIndexMessage;
+import com.documentsearch.document_management_service.entity.OutboxMessage;
+import com.documentsearch.document_management_service.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes outbox messages to RabbitMQ in batches with publisher confirms.
+ *
+ * Polling adapts to load: a full batch is followed immediately by the next one, and every
+ * empty poll doubles the wait up to the idle interval. Commits that add messages wake the
+ * relay straight away. Rows are deleted only after the broker confirms them, so delivery is
+ * at-least-once; re-indexing a document is idempotent on the worker side.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private RabbitMQPublisher rabbitMQPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.busy-interval-ms:10}")
+    private long busyIntervalMs;
+
+    @Value("${outbox.relay.idle-interval-ms:1000}")
+    private long idleIntervalMs;
+
+    @Value("${outbox.relay.failure-backoff-ms:5000}")
+    private long failureBackoffMs;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile boolean running;
+    private Thread relayThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        relayThread = new Thread(this::run, "outbox-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        if (relayThread != null) {
+            relayThread.interrupt();
+            relayThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Poll now instead of waiting for the current interval to elapse
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    private void run() {
+        long delayMs = busyIntervalMs;
+        boolean failing = false;
+        while (running) {
+            try {
+                if (failing) {
+                    // New commits do not cut the backoff short while the broker is unavailable
+                    TimeUnit.MILLISECONDS.sleep(delayMs);
+                } else if (delayMs > 0 && wakeUps.tryAcquire(delayMs, TimeUnit.MILLISECONDS)) {
+                    delayMs = busyIntervalMs;
+                }
+                wakeUps.drainPermits();
+                failing = false;
+
+                int published = relayBatch();
+                if (published == batchSize) {
+                    delayMs = 0;
+                } else if (published > 0) {
+                    delayMs = busyIntervalMs;
+                } else {
+                    delayMs = Math.min(Math.max(delayMs * 2, busyIntervalMs), idleIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Outbox relay failed, retrying in {} ms: {}", failureBackoffMs, e.getMessage());
+                delayMs = failureBackoffMs;
+                failing = true;
+            }
+        }
+    }
+
+    /**
+     * Publish the oldest batch of outbox messages and delete them once confirmed
+     */
+    private int relayBatch() {
+        List<OutboxMessage> batch = outboxMessageRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<DocumentIndexMessage> messages = new ArrayList<>(batch.size());
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (OutboxMessage row : batch) {
+            DocumentIndexMessage message = fromJson(row);
+            if (message != null) {
+                messages.add(message);
+            }
+            ids.add(row.getId());
+        }
+
+        if (!messages.isEmpty()) {
+            rabbitMQPublisher.publishDocumentIndexMessages(messages);
+        }
+        outboxMessageRepository.deleteAllByIdInBatch(ids);
+        log.debug("Relayed {} outbox message(s)", ids.size());
+        return ids.size();
+    }
+
+    /**
+     * Parse a stored message; unreadable rows are logged and dropped so they cannot block the outbox
+     */
+    private DocumentIndexMessage fromJson(OutboxMessage row) {
+        try {
+            return objectMapper.readValue(row.getPayload(), DocumentIndexMessage.class);
+        } catch (JsonProcessingException e) {
+            log.error("Dropping unreadable outbox message {} for document {}", row.getId(), row.getDocumentId(), e);
+            return null;
+        }
+    }
+}
@@ -5,8 +5,11 @@ import com.documentsearch.document_management_service.dto.DocumentIndexMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @Slf4j
 public class RabbitMQPublisher {
@@ -14,17 +17,29 @@ public class RabbitMQPublisher {
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
-    public void publishDocumentIndexMessage(DocumentIndexMessage message) {
+    @Value("${rabbitmq.publish-confirm-timeout-ms:10000}")
+    private long publishConfirmTimeoutMs;
+
+    /**
+     * Publish several messages on one channel and wait once for the broker to confirm all of them
+     */
+    public void publishDocumentIndexMessages(List<DocumentIndexMessage> messages) {
         try {
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.DOCUMENT_EXCHANGE,
-                    RabbitMQConfig.DOCUMENT_INDEX_ROUTING_KEY,
-                    message
-            );
-            log.info("Published document index message for document ID: {}", message.getDocumentId());
+            rabbitTemplate.invoke(operations -> {
+                for (DocumentIndexMessage message : messages) {
+                    operations.convertAndSend(
+                            RabbitMQConfig.DOCUMENT_EXCHANGE,
+                            RabbitMQConfig.DOCUMENT_INDEX_ROUTING_KEY,
+                            message
+                    );
+                }
+                operations.waitForConfirmsOrDie(publishConfirmTimeoutMs);
+                return null;
+            });
+            log.info("Published {} document index messages", messages.size());
         } catch (Exception e) {
-            log.error("Error publishing message to RabbitMQ", e);
-            throw new RuntimeException("Failed to publish message", e);
+            log.error("Error publishing messages to RabbitMQ", e);
+            throw new RuntimeException("Failed to publish messages", e);
         }
     }
 }
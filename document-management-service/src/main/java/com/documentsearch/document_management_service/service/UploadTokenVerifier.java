@@ -0,0 +1,71 @@
+package com.documentsearch.document_management_service.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Verifies upload tokens issued by api-gateway, so clients can upload directly to this service.
+ * Verification is local: the signature is checked with the key shared with the gateway and the
+ * tenant and size limit are read from the token.
+ */
+@Service
+@Slf4j
+public class UploadTokenVerifier {
+
+    private static final String AUDIENCE = "document-upload";
+
+    @Value("${upload-token.secret}")
+    private String uploadTokenSecret;
+
+    @Value("${upload-token.clock-skew-seconds:30}")
+    private long clockSkewSeconds;
+
+    private JwtParser jwtParser;
+
+    /**
+     * What a valid token allows: uploads for the tenant with a request body of at most maxSize bytes
+     */
+    public record UploadGrant(String username, String tenantId, long maxSize) {
+    }
+
+    @PostConstruct
+    void init() {
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(uploadTokenSecret.getBytes(StandardCharsets.UTF_8)))
+                .requireAudience(AUDIENCE)
+                .setAllowedClockSkewSeconds(clockSkewSeconds)
+                .build();
+    }
+
+    /**
+     * The grant of a valid, unexpired token, or empty if the token is not one
+     */
+    public Optional<UploadGrant> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            String tenantId = claims.get("tenantId", String.class);
+            Number maxSize = claims.get("maxSize", Number.class);
+            if (claims.getExpiration() == null || tenantId == null || tenantId.isBlank() || maxSize == null) {
+                log.warn("Upload token is missing required claims");
+                return Optional.empty();
+            }
+            return Optional.of(new UploadGrant(claims.getSubject(), tenantId, maxSize.longValue()));
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Rejected upload token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
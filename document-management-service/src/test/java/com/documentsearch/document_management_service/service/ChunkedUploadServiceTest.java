@@ -0,0 +1,406 @@
+package com.documentsearch.document_management_service.service;
+
+import com.documentsearch.document_management_service.dto.DocumentUploadResponse;
+import com.documentsearch.document_management_service.dto.UploadInitRequest;
+import com.documentsearch.document_management_service.dto.UploadSessionResponse;
+import com.documentsearch.document_management_service.entity.Document;
+import com.documentsearch.document_management_service.entity.UploadSession;
+import com.documentsearch.document_management_service.repository.DocumentRepository;
+import com.documentsearch.document_management_service.repository.UploadSessionRepository;
+import com.documentsearch.shared_models.storage.BlobStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "document.upload.min-chunk-size=16",
+        "document.upload.default-chunk-size=1024"
+})
+class ChunkedUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final String TENANT = "acme";
+
+    @TempDir
+    static Path storage;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("document.storage.path", () -> storage.toString());
+    }
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Test
+    void resumesUploadWithMissingChunksAndCommitsAssembledFile() throws Exception {
+        byte[] file = randomBytes(3 * CHUNK_SIZE + 100, 1);
+        UploadSessionResponse session = initiate(file.length);
+        assertThat(session.getTotalChunks()).isEqualTo(4);
+
+        writeChunk(session, file, 0);
+        writeChunk(session, file, 3);
+        assertThat(status(session).getMissingChunks()).containsExactly(1, 2);
+
+        // The client resumes with what is reported missing
+        for (int chunk : status(session).getMissingChunks()) {
+            writeChunk(session, file, chunk);
+        }
+        assertThat(status(session).getMissingChunks()).isEmpty();
+
+        DocumentUploadResponse response = chunkedUploadService.commit(session.getUploadId(), TENANT);
+
+        assertStored(response, file);
+        assertThat(status(session).getStatus()).isEqualTo("COMMITTED");
+        assertThat(status(session).getDocumentId()).isEqualTo(response.getDocumentId());
+    }
+
+    @Test
+    void chunkThatFailsItsChecksumIsMissingUntilSentAgain() throws Exception {
+        byte[] file = randomBytes(2 * CHUNK_SIZE, 2);
+        UploadSessionResponse session = initiate(file.length);
+        writeChunk(session, file, 0);
+        writeChunk(session, file, 1);
+
+        // A corrupted retry of a chunk that was already received overwrites it in place
+        byte[] corrupted = chunk(file, 0);
+        corrupted[10] ^= 0x55;
+        assertThatThrownBy(() -> chunkedUploadService.writeChunk(session.getUploadId(), TENANT, 0,
+                corrupted.length, sha256(chunk(file, 0)), new ByteArrayInputStream(corrupted)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Checksum mismatch");
+        assertThat(status(session).getMissingChunks()).containsExactly(0);
+        assertThatThrownBy(() -> chunkedUploadService.commit(session.getUploadId(), TENANT))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing 1 chunk");
+
+        writeChunk(session, file, 0);
+        assertStored(chunkedUploadService.commit(session.getUploadId(), TENANT), file);
+    }
+
+    @Test
+    void chunkCutOffMidwayIsMissingUntilSentAgain() throws Exception {
+        byte[] file = randomBytes(2 * CHUNK_SIZE, 7);
+        UploadSessionResponse session = initiate(file.length);
+        byte[] truncated = Arrays.copyOf(chunk(file, 1), CHUNK_SIZE / 2);
+
+        assertThatThrownBy(() -> chunkedUploadService.writeChunk(session.getUploadId(), TENANT, 1,
+                -1, sha256(chunk(file, 1)), new ByteArrayInputStream(truncated)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("received " + CHUNK_SIZE / 2);
+        writeChunk(session, file, 0);
+        assertThat(status(session).getMissingChunks()).containsExactly(1);
+
+        writeChunk(session, file, 1);
+        assertStored(chunkedUploadService.commit(session.getUploadId(), TENANT), file);
+    }
+
+    @Test
+    void chunkBeingWrittenIsMissingAndCannotBeWrittenTwice() throws Exception {
+        byte[] file = randomBytes(2 * CHUNK_SIZE, 8);
+        UploadSessionResponse session = initiate(file.length);
+        writeChunk(session, file, 0);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slowWrite = executor.submit(() -> {
+                byte[] chunk = chunk(file, 1);
+                chunkedUploadService.writeChunk(session.getUploadId(), TENANT, 1, chunk.length, sha256(chunk),
+                        new BlockingInputStream(chunk, release));
+                return null;
+            });
+            awaitMissing(session, 1);
+
+            assertThatThrownBy(() -> writeChunk(session, file, 1))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("already being written");
+            assertThatThrownBy(() -> chunkedUploadService.commit(session.getUploadId(), TENANT))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("missing 1 chunk");
+
+            release.countDown();
+            slowWrite.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertStored(chunkedUploadService.commit(session.getUploadId(), TENANT), file);
+    }
+
+    @Test
+    void stalledWriteIsTakenOverAfterTheTimeout() throws Exception {
+        byte[] file = randomBytes(2 * CHUNK_SIZE, 9);
+        UploadSessionResponse session = initiate(file.length);
+        writeChunk(session, file, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        byte[] garbage = randomBytes(CHUNK_SIZE, 10);
+
+        Object timeout = ReflectionTestUtils.getField(chunkedUploadService, "chunkWriteTimeoutMs");
+        ReflectionTestUtils.setField(chunkedUploadService, "chunkWriteTimeoutMs", 200L);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> stalledWrite = executor.submit(() -> {
+                chunkedUploadService.writeChunk(session.getUploadId(), TENANT, 1, garbage.length, sha256(garbage),
+                        new BlockingInputStream(garbage, release));
+                return null;
+            });
+            awaitMissing(session, 1);
+            Thread.sleep(300);
+
+            writeChunk(session, file, 1);
+
+            // The stalled request gives up without writing once it is past its timeout
+            release.countDown();
+            assertThatThrownBy(() -> stalledWrite.get(30, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            executor.shutdownNow();
+            ReflectionTestUtils.setField(chunkedUploadService, "chunkWriteTimeoutMs", timeout);
+        }
+
+        assertThat(status(session).getMissingChunks()).isEmpty();
+        assertStored(chunkedUploadService.commit(session.getUploadId(), TENANT), file);
+    }
+
+    @Test
+    void rejectsChunkOfWrongSize() throws Exception {
+        byte[] file = randomBytes(2 * CHUNK_SIZE, 3);
+        UploadSessionResponse session = initiate(file.length);
+        byte[] tooShort = Arrays.copyOf(chunk(file, 0), CHUNK_SIZE - 1);
+
+        assertThatThrownBy(() -> chunkedUploadService.writeChunk(session.getUploadId(), TENANT, 0,
+                -1, sha256(tooShort), new ByteArrayInputStream(tooShort)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be " + CHUNK_SIZE + " bytes");
+        assertThatThrownBy(() -> chunkedUploadService.writeChunk(session.getUploadId(), TENANT, 2,
+                CHUNK_SIZE, sha256(tooShort), new ByteArrayInputStream(tooShort)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Chunk index");
+    }
+
+    @Test
+    void commitRequiresEveryChunkAndRefusesLaterWrites() throws Exception {
+        byte[] file = randomBytes(2 * CHUNK_SIZE, 4);
+        UploadSessionResponse session = initiate(file.length);
+        writeChunk(session, file, 0);
+
+        assertThatThrownBy(() -> chunkedUploadService.commit(session.getUploadId(), TENANT))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing 1 chunk");
+
+        writeChunk(session, file, 1);
+        DocumentUploadResponse response = chunkedUploadService.commit(session.getUploadId(), TENANT);
+
+        assertThatThrownBy(() -> writeChunk(session, file, 1))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> chunkedUploadService.commit(session.getUploadId(), TENANT))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not open");
+        assertStored(response, file);
+    }
+
+    @Test
+    void commitThatDiedIsReopenedOnceTheTimeoutHasPassed() throws Exception {
+        byte[] file = randomBytes(2 * CHUNK_SIZE, 8);
+        UploadSessionResponse session = initiate(file.length);
+        writeChunk(session, file, 0);
+        writeChunk(session, file, 1);
+
+        // A commit still within its timeout is left alone
+        markCommitting(session, LocalDateTime.now());
+        chunkedUploadService.expireAbandonedSessions();
+        assertThat(status(session).getStatus()).isEqualTo("COMMITTING");
+
+        markCommitting(session, LocalDateTime.now().minusHours(1));
+        chunkedUploadService.expireAbandonedSessions();
+
+        assertThat(status(session).getStatus()).isEqualTo("OPEN");
+        assertThat(status(session).getMissingChunks()).isEmpty();
+        assertStored(chunkedUploadService.commit(session.getUploadId(), TENANT), file);
+    }
+
+    @Test
+    void commitThatDiedAfterLosingItsFileIsExpired() throws Exception {
+        byte[] file = randomBytes(CHUNK_SIZE, 9);
+        UploadSessionResponse session = initiate(file.length);
+        writeChunk(session, file, 0);
+        Files.delete(Path.of(uploadSessionRepository.findById(session.getUploadId()).orElseThrow().getFilePath()));
+
+        markCommitting(session, LocalDateTime.now().minusHours(1));
+        chunkedUploadService.expireAbandonedSessions();
+
+        assertThat(uploadSessionRepository.findById(session.getUploadId())).isEmpty();
+        assertThatThrownBy(() -> status(session)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void sessionsAreInvisibleToOtherTenants() throws Exception {
+        byte[] file = randomBytes(CHUNK_SIZE, 5);
+        UploadSessionResponse session = initiate(file.length);
+
+        assertThatThrownBy(() -> chunkedUploadService.writeChunk(session.getUploadId(), "globex", 0,
+                file.length, sha256(file), new ByteArrayInputStream(file)))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> chunkedUploadService.commit(session.getUploadId(), "globex"))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void parallelChunksAndRetriesAssembleTheSameFile() throws Exception {
+        byte[] file = randomBytes(16 * CHUNK_SIZE, 6);
+        UploadSessionResponse session = initiate(file.length);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int attempt = 0; attempt < 2; attempt++) {
+                for (int chunk = 0; chunk < session.getTotalChunks(); chunk++) {
+                    int index = chunk;
+                    writes.add(executor.submit(() -> {
+                        // A duplicate that overlaps the first write is refused; the client retries it
+                        while (true) {
+                            try {
+                                writeChunk(session, file, index);
+                                return null;
+                            } catch (IllegalStateException e) {
+                                Thread.sleep(5);
+                            }
+                        }
+                    }));
+                }
+            }
+            for (Future<?> write : writes) {
+                write.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertStored(chunkedUploadService.commit(session.getUploadId(), TENANT), file);
+    }
+
+    private UploadSessionResponse initiate(long fileSize) throws IOException {
+        return chunkedUploadService.initiate(
+                new UploadInitRequest("data.bin", "application/octet-stream", fileSize, CHUNK_SIZE), TENANT);
+    }
+
+    private UploadSessionResponse status(UploadSessionResponse session) {
+        return chunkedUploadService.getStatus(session.getUploadId(), TENANT);
+    }
+
+    /**
+     * Leave the session as a commit that died after moving it to COMMITTING would
+     */
+    private void markCommitting(UploadSessionResponse session, LocalDateTime commitStartedAt) {
+        UploadSession stored = uploadSessionRepository.findById(session.getUploadId()).orElseThrow();
+        stored.setStatus("COMMITTING");
+        stored.setCommitStartedAt(commitStartedAt);
+        uploadSessionRepository.save(stored);
+    }
+
+    /**
+     * Wait until the chunk has been taken by a write, which reports it missing
+     */
+    private void awaitMissing(UploadSessionResponse session, int chunkIndex) throws InterruptedException {
+        for (int i = 0; i < 500 && !status(session).getMissingChunks().contains(chunkIndex); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(status(session).getMissingChunks()).contains(chunkIndex);
+    }
+
+    private void writeChunk(UploadSessionResponse session, byte[] file, int index) throws IOException {
+        byte[] chunk = chunk(file, index);
+        chunkedUploadService.writeChunk(session.getUploadId(), TENANT, index, chunk.length, sha256(chunk),
+                new ByteArrayInputStream(chunk));
+    }
+
+    private void assertStored(DocumentUploadResponse response, byte[] file) throws IOException {
+        Document document = documentRepository.findById(response.getDocumentId()).orElseThrow();
+        assertThat(document.getContentDigest()).isEqualTo(sha256(file));
+        assertThat(document.getFileSize()).isEqualTo(file.length);
+        try (InputStream in = blobStore.open(document.getContentDigest())) {
+            assertThat(in.readAllBytes()).isEqualTo(file);
+        }
+    }
+
+    private static byte[] chunk(byte[] file, int index) {
+        int from = index * CHUNK_SIZE;
+        return Arrays.copyOfRange(file, from, Math.min(file.length, from + CHUNK_SIZE));
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Holds back the body until released, as a client on a stalled connection would
+     */
+    private static class BlockingInputStream extends ByteArrayInputStream {
+
+        private final CountDownLatch release;
+
+        BlockingInputStream(byte[] bytes, CountDownLatch release) {
+            super(bytes);
+            this.release = release;
+        }
+
+        @Override
+        public synchronized int read(byte[] target, int offset, int length) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+            return super.read(target, offset, length);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.documentsearch.document_management_service.service;
+
+import com.documentsearch.document_management_service.entity.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentCursorTest {
+
+    @Test
+    void roundTripsUploadTimeAndId() {
+        DocumentCursor cursor = new DocumentCursor(LocalDateTime.of(2024, 1, 15, 10, 30, 5, 123456789), 42L);
+
+        assertThat(DocumentCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsTimeWithoutSeconds() {
+        // LocalDateTime.toString() drops zero seconds and nanos
+        DocumentCursor cursor = new DocumentCursor(LocalDateTime.of(2024, 1, 15, 10, 30), 7L);
+
+        assertThat(DocumentCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void pointsAfterTheGivenDocument() {
+        Document document = new Document();
+        document.setId(99L);
+        document.setUploadedAt(LocalDateTime.of(2024, 3, 1, 8, 0, 0));
+
+        DocumentCursor cursor = DocumentCursor.after(document);
+
+        assertThat(cursor.uploadedAt()).isEqualTo(document.getUploadedAt());
+        assertThat(cursor.id()).isEqualTo(99L);
+    }
+
+    @Test
+    void encodesAsUrlSafeTokenWithoutPadding() {
+        String token = new DocumentCursor(LocalDateTime.of(2024, 1, 15, 10, 30, 5), Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not a cursor!", "%%%"})
+    void rejectsTokensThatAreNotBase64Cursors(String token) {
+        assertThatThrownBy(() -> DocumentCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid cursor");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2024-01-15T10:30:05", "yesterday|42", "2024-01-15T10:30:05|forty-two", "2024-13-45T10:30|1"})
+    void rejectsMalformedCursorValues(String value) {
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> DocumentCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid cursor");
+    }
+}
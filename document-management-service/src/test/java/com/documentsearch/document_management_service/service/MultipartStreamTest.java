@@ -0,0 +1,262 @@
+package com.documentsearch.document_management_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultipartStreamTest {
+
+    private static final String BOUNDARY = "XyZ123boundary";
+
+    @Test
+    void parsesPartsWhenDelimitersAreSplitAcrossReads() throws IOException {
+        byte[] body = multipart(
+                part("title", null, "quarterly report"),
+                part("file", "report.txt", "line one\r\nline two"));
+
+        // Every chunk size from one byte up splits some delimiter at a different offset
+        for (int chunkSize = 1; chunkSize <= body.length; chunkSize++) {
+            List<String[]> parts = readAll(new MultipartStream(new ChunkedInputStream(body, chunkSize), BOUNDARY));
+
+            assertThat(parts).as("chunk size %d", chunkSize).hasSize(2);
+            assertThat(parts.get(0)).containsExactly("title", null, "quarterly report");
+            assertThat(parts.get(1)).containsExactly("file", "report.txt", "line one\r\nline two");
+        }
+    }
+
+    @Test
+    void skipsPreambleAndTransportPadding() throws IOException {
+        String body = "This is a preamble that clients may send.\r\n"
+                + "--" + BOUNDARY + " \t \r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n"
+                + "\r\n"
+                + "content\r\n"
+                + "--" + BOUNDARY + "--\r\n"
+                + "epilogue";
+
+        List<String[]> parts = readAll(new MultipartStream(stream(body), BOUNDARY));
+
+        assertThat(parts).hasSize(1);
+        assertThat(parts.get(0)).containsExactly("file", "a.txt", "content");
+    }
+
+    @Test
+    void failsWhenClosingDelimiterIsMissing() throws IOException {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n"
+                + "\r\n"
+                + "content that is cut off";
+
+        MultipartStream multipart = new MultipartStream(stream(body), BOUNDARY);
+        MultipartStream.Part part = multipart.nextPart();
+
+        assertThat(part.name()).isEqualTo("file");
+        assertThatThrownBy(() -> part.body().readAllBytes())
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unexpected end");
+    }
+
+    @Test
+    void failsWhenBodyEndsAfterAPart() throws IOException {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n"
+                + "\r\n"
+                + "content\r\n"
+                + "--" + BOUNDARY;
+
+        MultipartStream multipart = new MultipartStream(stream(body), BOUNDARY);
+        MultipartStream.Part part = multipart.nextPart();
+        assertThat(part.body().readAllBytes()).asString(StandardCharsets.UTF_8).isEqualTo("content");
+
+        assertThatThrownBy(multipart::nextPart)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unexpected end");
+    }
+
+    @Test
+    void keepsPartialDelimiterThatTurnsOutToBeContent() throws IOException {
+        // Looks like the start of a delimiter, then diverges from the boundary
+        String content = "before\r\n--XyZ123bound but not the boundary\r\n--\r\n-- after";
+        byte[] body = multipart(part("file", "a.txt", content));
+        int prefixEnd = indexOf(body, "\r\n--XyZ123bound ") + "\r\n--XyZ123bound".length();
+
+        // The first read ends exactly on the partial delimiter
+        InputStream in = new SplitInputStream(body, prefixEnd);
+        List<String[]> parts = readAll(new MultipartStream(in, BOUNDARY));
+
+        assertThat(parts).hasSize(1);
+        assertThat(parts.get(0)[2]).isEqualTo(content);
+    }
+
+    @Test
+    void rejectsOversizedHeaderBlock() throws IOException {
+        StringBuilder body = new StringBuilder("--" + BOUNDARY + "\r\n")
+                .append("Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n");
+        for (int i = 0; i < 1000; i++) {
+            body.append("X-Padding-").append(i).append(": ").append("v".repeat(20)).append("\r\n");
+        }
+        body.append("\r\ncontent\r\n--").append(BOUNDARY).append("--\r\n");
+
+        MultipartStream multipart = new MultipartStream(stream(body.toString()), BOUNDARY);
+
+        assertThatThrownBy(multipart::nextPart)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("too large");
+    }
+
+    @Test
+    void rejectsOverlongHeaderLine() throws IOException {
+        String body = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + "n".repeat(70000) + "\"\r\n"
+                + "\r\ncontent\r\n--" + BOUNDARY + "--\r\n";
+
+        MultipartStream multipart = new MultipartStream(stream(body), BOUNDARY);
+
+        assertThatThrownBy(multipart::nextPart)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("too long");
+    }
+
+    @Test
+    void skipsUnreadPart() throws IOException {
+        byte[] large = randomBytes(200 * 1024);
+        byte[] body = concat(
+                partBytes("skipped", "big.bin", large),
+                partBytes("file", "a.txt", "kept".getBytes(StandardCharsets.UTF_8)),
+                ("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+
+        MultipartStream multipart = new MultipartStream(new ChunkedInputStream(body, 7777), BOUNDARY);
+        MultipartStream.Part skipped = multipart.nextPart();
+        MultipartStream.Part kept = multipart.nextPart();
+
+        assertThat(skipped.name()).isEqualTo("skipped");
+        assertThat(kept.name()).isEqualTo("file");
+        assertThat(kept.body().readAllBytes()).asString(StandardCharsets.UTF_8).isEqualTo("kept");
+        // The skipped part's stream is exhausted once the parser has moved past it
+        assertThat(skipped.body().read()).isEqualTo(-1);
+        assertThat(multipart.nextPart()).isNull();
+    }
+
+    @Test
+    void streamsContentLargerThanTheBuffer() throws IOException {
+        byte[] large = randomBytes(300 * 1024);
+        byte[] body = concat(
+                partBytes("file", "big.bin", large),
+                ("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+
+        MultipartStream multipart = new MultipartStream(new ChunkedInputStream(body, 5000), BOUNDARY);
+        MultipartStream.Part part = multipart.nextPart();
+
+        assertThat(part.body().readAllBytes()).isEqualTo(large);
+        assertThat(multipart.nextPart()).isNull();
+    }
+
+    private static List<String[]> readAll(MultipartStream multipart) throws IOException {
+        List<String[]> parts = new ArrayList<>();
+        MultipartStream.Part part;
+        while ((part = multipart.nextPart()) != null) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            // Read a byte at a time first to exercise the single-byte path as well
+            int first = part.body().read();
+            if (first != -1) {
+                content.write(first);
+                part.body().transferTo(content);
+            }
+            parts.add(new String[]{part.name(), part.fileName(), content.toString(StandardCharsets.UTF_8)});
+        }
+        return parts;
+    }
+
+    private static String part(String name, String fileName, String content) {
+        return "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\""
+                + (fileName != null ? "; filename=\"" + fileName + "\"" : "") + "\r\n"
+                + (fileName != null ? "Content-Type: text/plain\r\n" : "")
+                + "\r\n"
+                + content + "\r\n";
+    }
+
+    private static byte[] multipart(String... parts) {
+        return (String.join("", parts) + "--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] partBytes(String name, String fileName, byte[] content) {
+        byte[] headers = ("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n"
+                + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        return concat(headers, content, "\r\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static byte[] concat(byte[]... arrays) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] array : arrays) {
+            out.writeBytes(array);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static int indexOf(byte[] body, String text) {
+        String haystack = new String(body, StandardCharsets.ISO_8859_1);
+        int index = haystack.indexOf(text);
+        assertThat(index).isNotNegative();
+        return index;
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns at most chunkSize bytes per read, as a socket delivering small packets would
+     */
+    private static class ChunkedInputStream extends ByteArrayInputStream {
+
+        private final int chunkSize;
+
+        ChunkedInputStream(byte[] bytes, int chunkSize) {
+            super(bytes);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public synchronized int read(byte[] target, int offset, int length) {
+            return super.read(target, offset, Math.min(length, chunkSize));
+        }
+    }
+
+    /**
+     * Returns the bytes before splitAt in the first read and the rest afterwards
+     */
+    private static class SplitInputStream extends ByteArrayInputStream {
+
+        private final int splitAt;
+
+        SplitInputStream(byte[] bytes, int splitAt) {
+            super(bytes);
+            this.splitAt = splitAt;
+        }
+
+        @Override
+        public synchronized int read(byte[] target, int offset, int length) {
+            int limit = pos < splitAt ? splitAt - pos : length;
+            return super.read(target, offset, Math.min(length, limit));
+        }
+    }
+}
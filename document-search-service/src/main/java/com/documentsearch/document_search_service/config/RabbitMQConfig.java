@@ -0,0 +1,54 @@
+package com.documentsearch.document_search_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+
+    public static final String DOCUMENT_EVENTS_EXCHANGE = "document.events";
+    public static final String DOCUMENT_INDEXED_ROUTING_KEY = "document.indexed";
+    public static final String DOCUMENT_DELETED_ROUTING_KEY = "document.deleted";
+
+    @Bean
+    public TopicExchange documentEventsExchange() {
+        return new TopicExchange(DOCUMENT_EVENTS_EXCHANGE);
+    }
+
+    /**
+     * Every search-service instance gets its own auto-deleted queue so each one
+     * sees every index change and can invalidate its local cache.
+     */
+    @Bean
+    public Queue indexChangeQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding documentIndexedBinding(Queue indexChangeQueue, TopicExchange documentEventsExchange) {
+        return BindingBuilder
+                .bind(indexChangeQueue)
+                .to(documentEventsExchange)
+                .with(DOCUMENT_INDEXED_ROUTING_KEY);
+    }
+
+    @Bean
+    public Binding documentDeletedBinding(Queue indexChangeQueue, TopicExchange documentEventsExchange) {
+        return BindingBuilder
+                .bind(indexChangeQueue)
+                .to(documentEventsExchange)
+                .with(DOCUMENT_DELETED_ROUTING_KEY);
+    }
+
+    @Bean
+    public MessageConverter messageConverter() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+}
@@ -22,19 +22,23 @@ public class SearchController {
 
     /**
      * Hybrid search endpoint
-     * GET /api/search?q={query}&tenant={tenantId}
+     * GET /api/search?q={query}&tenant={tenantId}&page={page}&size={size}
      *
      * Performs hybrid search across document metadata (filename) and content,
      * filtered by tenant ID.
      *
      * @param query Search query string
      * @param tenantId Tenant ID for multi-tenancy support
+     * @param page Zero-based result page
+     * @param size Results per page
      * @return List of matching documents with relevance scores
      */
     @GetMapping("/search")
     public ResponseEntity<?> search(
             @RequestParam(required = false) String q,
-            @RequestParam String tenant) {
+            @RequestParam String tenant,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
 
         long startTime = System.currentTimeMillis();
 
@@ -77,8 +81,20 @@ public class SearchController {
                         ));
             }
 
+            // Validate paging
+            if (page < 0 || size < 1 || size > 100) {
+                log.warn("Search request rejected: Invalid paging page={} size={} for tenant: {}", page, size, tenant);
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(new ErrorResponse(
+                                400,
+                                "Bad Request",
+                                "Invalid paging. 'page' must be >= 0 and 'size' between 1 and 100.",
+                                "/api/search"
+                        ));
+            }
+
             // Perform search
-            List<SearchResultDTO> results = documentSearchService.hybridSearch(q, tenant);
+            List<SearchResultDTO> results = documentSearchService.hybridSearch(q, tenant, page, size);
             long searchTimeMs = System.currentTimeMillis() - startTime;
 
             log.info("Search completed successfully: {} result(s) found in {}ms for tenant: {}",
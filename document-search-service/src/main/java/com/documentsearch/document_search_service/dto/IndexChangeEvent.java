@@ -0,0 +1,18 @@
+package com.documentsearch.document_search_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexChangeEvent implements Serializable {
+    private Long documentId;
+    private String tenantId;
+    private String action; // INDEXED, DELETED
+    private LocalDateTime occurredAt;
+}
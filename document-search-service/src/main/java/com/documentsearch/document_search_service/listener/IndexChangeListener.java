@@ -0,0 +1,23 @@
+package com.documentsearch.document_search_service.listener;
+
+import com.documentsearch.document_search_service.dto.IndexChangeEvent;
+import com.documentsearch.document_search_service.service.SearchResultCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndexChangeListener {
+
+    private final SearchResultCache searchResultCache;
+
+    @RabbitListener(queues = "#{indexChangeQueue.name}")
+    public void handleIndexChange(IndexChangeEvent event) {
+        log.debug("Index change {} for document ID: {} - tenant: {}",
+                event.getAction(), event.getDocumentId(), event.getTenantId());
+        searchResultCache.invalidateTenant(event.getTenantId());
+    }
+}
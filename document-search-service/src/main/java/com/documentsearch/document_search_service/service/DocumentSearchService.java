@@ -5,6 +5,7 @@ import com.documentsearch.document_search_service.model.DocumentSearchIndex;
 import com.documentsearch.document_search_service.repository.DocumentSearchRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
@@ -14,6 +15,7 @@ import org.springframework.data.elasticsearch.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,13 +23,19 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DocumentSearchService {
 
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     private final DocumentSearchRepository documentSearchRepository;
     private final ElasticsearchOperations elasticsearchOperations;
+    private final SearchResultCache searchResultCache;
+    private final SearchRequestCoalescer searchRequestCoalescer;
 
     /**
-     * Hybrid search across metadata and content, filtered by tenant
+     * Hybrid search across metadata and content, filtered by tenant.
+     * Result pages are served from the tenant-scoped result cache when possible,
+     * and concurrent identical misses are coalesced into a single query.
      */
-    public List<SearchResultDTO> hybridSearch(String query, String tenantId) {
+    public List<SearchResultDTO> hybridSearch(String query, String tenantId, int page, int size) {
         log.info("Performing hybrid search with query: '{}' for tenant: {}", query, tenantId);
 
         if (query == null || query.trim().isEmpty()) {
@@ -35,12 +43,37 @@ public class DocumentSearchService {
             return getAllDocumentsForTenant(tenantId);
         }
 
+        String normalizedQuery = normalizeQuery(query);
+        SearchCacheKey cacheKey = searchResultCache.keyFor(tenantId, normalizedQuery, page, size);
+        List<SearchResultDTO> cached = searchResultCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            log.info("Serving {} cached results for query: '{}' and tenant: {}", cached.size(), normalizedQuery, tenantId);
+            return cached;
+        }
+
+        // Identical concurrent misses share one Elasticsearch call
+        return searchRequestCoalescer.execute(cacheKey, () -> {
+            List<SearchResultDTO> recent = searchResultCache.getIfPresent(cacheKey);
+            if (recent != null) {
+                return recent;
+            }
+            List<SearchResultDTO> results = executeHybridSearch(normalizedQuery, tenantId, page, size);
+            searchResultCache.put(cacheKey, results);
+            return results;
+        });
+    }
+
+    /**
+     * Run the hybrid search query against Elasticsearch
+     */
+    private List<SearchResultDTO> executeHybridSearch(String query, String tenantId, int page, int size) {
         // Build criteria for hybrid search
         Criteria criteria = new Criteria("tenantId").is(tenantId)
                 .and(new Criteria().or("fileName").contains(query)
                         .or("content").contains(query));
 
         Query searchQuery = new CriteriaQuery(criteria);
+        searchQuery.setPageable(PageRequest.of(page, size));
         SearchHits<DocumentSearchIndex> searchHits = elasticsearchOperations.search(
                 searchQuery, DocumentSearchIndex.class);
 
@@ -51,6 +84,13 @@ public class DocumentSearchService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Normalize a query so equivalent queries share a cache entry
+     */
+    private String normalizeQuery(String query) {
+        return WHITESPACE.matcher(query.trim()).replaceAll(" ");
+    }
+
     /**
      * Get all documents for a tenant (when query is empty)
      */
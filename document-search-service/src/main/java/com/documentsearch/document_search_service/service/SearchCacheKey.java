@@ -0,0 +1,16 @@
+package com.documentsearch.document_search_service.service;
+
+import lombok.Value;
+
+/**
+ * Identity of a search result page. The tenant's index version is part of the key,
+ * so entries cached before the tenant's index last changed are never returned.
+ */
+@Value
+public class SearchCacheKey {
+    String tenantId;
+    String query;
+    int page;
+    int size;
+    long indexVersion;
+}
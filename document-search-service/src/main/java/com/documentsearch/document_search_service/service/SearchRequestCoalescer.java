@@ -0,0 +1,72 @@
+package com.documentsearch.document_search_service.service;
+
+import com.documentsearch.document_search_service.dto.SearchResultDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical concurrent searches.
+ *
+ * The first caller for a key runs the Elasticsearch query; callers arriving while it is in
+ * flight wait on the same future and share its result. The in-flight map only holds futures,
+ * so no lock is held while the query runs, and the entry is removed as soon as it completes.
+ */
+@Component
+@Slf4j
+public class SearchRequestCoalescer {
+
+    private final ConcurrentHashMap<SearchCacheKey, CompletableFuture<List<SearchResultDTO>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final Counter coalescedSearches;
+
+    public SearchRequestCoalescer(MeterRegistry meterRegistry) {
+        this.coalescedSearches = Counter.builder("search.coalesced")
+                .description("Searches served by joining an identical in-flight search")
+                .register(meterRegistry);
+        meterRegistry.gauge("search.inflight", inFlight, ConcurrentHashMap::size);
+    }
+
+    public List<SearchResultDTO> execute(SearchCacheKey key, Supplier<List<SearchResultDTO>> search) {
+        CompletableFuture<List<SearchResultDTO>> flight = new CompletableFuture<>();
+        CompletableFuture<List<SearchResultDTO>> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalescedSearches.increment();
+            log.debug("Joining in-flight search for tenant: {}", key.getTenantId());
+            return await(existing);
+        }
+
+        try {
+            List<SearchResultDTO> results = List.copyOf(search.get());
+            flight.complete(results);
+            return results;
+        } catch (Throwable e) {
+            // Errors too: waiters must never be left blocked on a flight that will not complete
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private List<SearchResultDTO> await(CompletableFuture<List<SearchResultDTO>> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
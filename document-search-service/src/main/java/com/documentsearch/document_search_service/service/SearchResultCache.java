@@ -0,0 +1,73 @@
+package com.documentsearch.document_search_service.service;
+
+import com.documentsearch.document_search_service.dto.SearchResultDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, tenant-scoped cache of search result pages.
+ *
+ * Each tenant has an index version that is bumped whenever indexer-worker reports an indexed
+ * or deleted document for that tenant. Keys carry the version current at lookup time, so a
+ * bump invalidates all of the tenant's entries at once; the orphaned entries then age out
+ * through size and TTL eviction.
+ */
+@Component
+@Slf4j
+public class SearchResultCache {
+
+    private final Cache<SearchCacheKey, List<SearchResultDTO>> cache;
+    private final ConcurrentHashMap<String, AtomicLong> tenantIndexVersions = new ConcurrentHashMap<>();
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+                             @Value("${search.cache.max-size:10000}") long maxSize,
+                             @Value("${search.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "search.results");
+    }
+
+    /**
+     * Build the cache key for a search, bound to the tenant's current index version
+     */
+    public SearchCacheKey keyFor(String tenantId, String normalizedQuery, int page, int size) {
+        return new SearchCacheKey(tenantId, normalizedQuery, page, size, indexVersion(tenantId));
+    }
+
+    public List<SearchResultDTO> getIfPresent(SearchCacheKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(SearchCacheKey key, List<SearchResultDTO> results) {
+        cache.put(key, List.copyOf(results));
+    }
+
+    /**
+     * Invalidate every cached page for a tenant by moving it to a new index version
+     */
+    public void invalidateTenant(String tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        long version = tenantIndexVersions.computeIfAbsent(tenantId, t -> new AtomicLong()).incrementAndGet();
+        log.debug("Search cache invalidated for tenant: {} (index version {})", tenantId, version);
+    }
+
+    private long indexVersion(String tenantId) {
+        AtomicLong version = tenantIndexVersions.get(tenantId);
+        return version != null ? version.get() : 0L;
+    }
+}
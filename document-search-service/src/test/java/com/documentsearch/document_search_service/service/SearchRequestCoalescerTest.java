@@ -0,0 +1,146 @@
+package com.documentsearch.document_search_service.service;
+
+import com.documentsearch.document_search_service.dto.SearchResultDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchRequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SearchRequestCoalescer coalescer = new SearchRequestCoalescer(meterRegistry);
+    private final SearchCacheKey key = new SearchCacheKey("acme", "invoice", 0, 10, 0);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalSearchesShareOneExecution() throws Exception {
+        List<SearchResultDTO> results = List.of(result("1"));
+        AtomicInteger executions = new AtomicInteger();
+
+        List<Future<List<SearchResultDTO>>> callers = runWhileBlocked(() -> {
+            executions.incrementAndGet();
+            return results;
+        });
+
+        for (Future<List<SearchResultDTO>> caller : callers) {
+            assertThat(caller.get(10, TimeUnit.SECONDS)).isEqualTo(results);
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("search.coalesced").counter().count()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void leaderFailureIsRethrownToEveryWaiter() throws Exception {
+        List<Future<List<SearchResultDTO>>> callers = runWhileBlocked(() -> {
+            throw new IllegalStateException("Elasticsearch unavailable");
+        });
+
+        for (Future<List<SearchResultDTO>> caller : callers) {
+            assertThatThrownBy(() -> caller.get(10, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Elasticsearch unavailable");
+        }
+    }
+
+    @Test
+    void leaderErrorReleasesWaitersInsteadOfHangingThem() throws Exception {
+        List<Future<List<SearchResultDTO>>> callers = runWhileBlocked(() -> {
+            throw new StackOverflowError("deeply nested query");
+        });
+
+        for (Future<List<SearchResultDTO>> caller : callers) {
+            assertThatThrownBy(() -> caller.get(10, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause()
+                    .isInstanceOf(StackOverflowError.class);
+        }
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void completedFlightIsNotReused() {
+        AtomicInteger executions = new AtomicInteger();
+
+        coalescer.execute(key, () -> List.of(result(String.valueOf(executions.incrementAndGet()))));
+        List<SearchResultDTO> second = coalescer.execute(key,
+                () -> List.of(result(String.valueOf(executions.incrementAndGet()))));
+
+        assertThat(executions.get()).isEqualTo(2);
+        assertThat(second.get(0).getId()).isEqualTo("2");
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void failedFlightIsRemovedSoTheNextSearchRunsAgain() {
+        assertThatThrownBy(() -> coalescer.execute(key, () -> {
+            throw new IllegalStateException("timeout");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(coalescer.execute(key, () -> List.of(result("1")))).hasSize(1);
+        assertThat(inFlight()).isZero();
+    }
+
+    /**
+     * Start CALLERS identical searches; the leader's search runs only once every other caller
+     * has joined its flight
+     */
+    private List<Future<List<SearchResultDTO>>> runWhileBlocked(Supplier<List<SearchResultDTO>> search)
+            throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<List<SearchResultDTO>> blockingSearch = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return search.get();
+        };
+
+        List<Future<List<SearchResultDTO>>> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            callers.add(executor.submit(() -> coalescer.execute(key, blockingSearch)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("search.coalesced").counter().count() < CALLERS - 1) {
+            assertThat(System.nanoTime()).as("waiters joined in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+        release.countDown();
+        return callers;
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("search.inflight").gauge().value();
+    }
+
+    private static SearchResultDTO result(String id) {
+        SearchResultDTO result = new SearchResultDTO();
+        result.setId(id);
+        result.setTenantId("acme");
+        return result;
+    }
+}
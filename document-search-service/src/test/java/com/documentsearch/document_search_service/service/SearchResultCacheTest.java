@@ -0,0 +1,79 @@
+package com.documentsearch.document_search_service.service;
+
+import com.documentsearch.document_search_service.dto.SearchResultDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchResultCacheTest {
+
+    private final SearchResultCache cache = new SearchResultCache(new SimpleMeterRegistry(), 100, 60);
+
+    @Test
+    void returnsCachedPageForSameSearch() {
+        List<SearchResultDTO> results = List.of(result("1", "acme"));
+        cache.put(cache.keyFor("acme", "invoice", 0, 10), results);
+
+        assertThat(cache.getIfPresent(cache.keyFor("acme", "invoice", 0, 10))).isEqualTo(results);
+        assertThat(cache.getIfPresent(cache.keyFor("acme", "invoice", 1, 10))).isNull();
+        assertThat(cache.getIfPresent(cache.keyFor("globex", "invoice", 0, 10))).isNull();
+    }
+
+    @Test
+    void versionBumpInvalidatesOnlyThatTenant() {
+        cache.put(cache.keyFor("acme", "invoice", 0, 10), List.of(result("1", "acme")));
+        cache.put(cache.keyFor("globex", "invoice", 0, 10), List.of(result("2", "globex")));
+        SearchCacheKey before = cache.keyFor("acme", "invoice", 0, 10);
+
+        cache.invalidateTenant("acme");
+
+        SearchCacheKey after = cache.keyFor("acme", "invoice", 0, 10);
+        assertThat(after.getIndexVersion()).isEqualTo(before.getIndexVersion() + 1);
+        assertThat(cache.getIfPresent(after)).isNull();
+        assertThat(cache.getIfPresent(cache.keyFor("globex", "invoice", 0, 10))).hasSize(1);
+    }
+
+    @Test
+    void resultsComputedBeforeABumpAreNotServedAfterIt() {
+        // A search keyed before the index changed finishes and is cached afterwards
+        SearchCacheKey staleKey = cache.keyFor("acme", "invoice", 0, 10);
+        cache.invalidateTenant("acme");
+        cache.put(staleKey, List.of(result("1", "acme")));
+
+        assertThat(cache.getIfPresent(cache.keyFor("acme", "invoice", 0, 10))).isNull();
+    }
+
+    @Test
+    void cachedPagesCannotBeModifiedByCallers() {
+        List<SearchResultDTO> results = new ArrayList<>(List.of(result("1", "acme")));
+        SearchCacheKey key = cache.keyFor("acme", "invoice", 0, 10);
+        cache.put(key, results);
+        results.clear();
+
+        List<SearchResultDTO> cached = cache.getIfPresent(key);
+        assertThat(cached).hasSize(1);
+        assertThatThrownBy(cached::clear).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void ignoresInvalidationWithoutTenant() {
+        cache.put(cache.keyFor("acme", "invoice", 0, 10), List.of(result("1", "acme")));
+
+        cache.invalidateTenant(null);
+
+        assertThat(cache.getIfPresent(cache.keyFor("acme", "invoice", 0, 10))).hasSize(1);
+    }
+
+    private static SearchResultDTO result(String id, String tenantId) {
+        SearchResultDTO result = new SearchResultDTO();
+        result.setId(id);
+        result.setTenantId(tenantId);
+        result.setFileName("invoice-" + id + ".pdf");
+        return result;
+    }
+}
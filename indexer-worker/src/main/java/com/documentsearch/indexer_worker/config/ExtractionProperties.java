@@ -0,0 +1,41 @@
+package com.documentsearch.indexer_worker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Text extraction limits: indexer.extraction.*
+ *
+ * With forked=true each document is parsed in a pool of child JVMs, so a document that hangs a
+ * parser or exhausts its heap costs one child process instead of the worker.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexer.extraction")
+@Data
+public class ExtractionProperties {
+
+    private boolean forked = true;
+
+    // Child processes; 0 means one per available core, matching the default extract stage
+    private int poolSize = 0;
+
+    // Heap of each child process
+    private DataSize maxHeap = DataSize.ofMegabytes(512);
+
+    // Wall-clock limit for one document; the child parsing it is killed and replaced (forked mode only)
+    private long timeoutMs = 120000;
+
+    // Children are replaced after this many documents so leaks in parsers cannot accumulate
+    private int maxFilesPerProcess = 1000;
+
+    // Characters kept per document; the rest of the text is not indexed
+    private int maxTextLength = 100000;
+
+    // File types reported as their own metric tag; others are reported as "other"
+    private List<String> metricFileTypes = List.of("pdf", "doc", "docx", "txt", "xls", "xlsx", "ppt", "pptx",
+            "rtf", "odt", "html", "xml", "csv", "json", "md", "zip");
+}
@@ -0,0 +1,40 @@
+package com.documentsearch.indexer_worker.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Sizing of the indexing pipeline: indexer.pipeline.<stage>.threads / .queue-capacity.
+ *
+ * I/O-bound stages (fetch, read, write, status) and the CPU-bound extract stage are sized
+ * separately; extract threads of 0 mean one per available core.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexer.pipeline")
+@Data
+public class PipelineProperties {
+
+    private Stage fetch = new Stage(4, 100);
+    private Stage read = new Stage(4, 100);
+    private Stage extract = new Stage(0, 100);
+    private Stage write = new Stage(2, 10);
+    private Stage status = new Stage(4, 100);
+
+    // Files up to this size are read into memory by the read stage; larger ones are streamed by the extract stage
+    private DataSize maxBufferedFileSize = DataSize.ofMegabytes(16);
+
+    // Total bytes of files held in memory between the read and extract stages; beyond it files are streamed
+    private DataSize maxBufferedBytes = DataSize.ofMegabytes(128);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stage {
+        private int threads;
+        private int queueCapacity;
+    }
+}
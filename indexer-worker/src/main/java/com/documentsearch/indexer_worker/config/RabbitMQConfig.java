@@ -3,10 +3,13 @@ package com.documentsearch.indexer_worker.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -16,12 +19,32 @@ public class RabbitMQConfig {
     public static final String DOCUMENT_EXCHANGE = "document.exchange";
     public static final String DOCUMENT_INDEX_QUEUE = "document.index.queue";
     public static final String DOCUMENT_INDEX_ROUTING_KEY = "document.index";
+    public static final String DOCUMENT_EVENTS_EXCHANGE = "document.events";
+    public static final String DOCUMENT_INDEXED_ROUTING_KEY = "document.indexed";
+    public static final String DOCUMENT_DELETED_ROUTING_KEY = "document.deleted";
+    public static final String DOCUMENT_STATUS_ROUTING_KEY = "document.status";
+
+    // Index messages are consumed in batches of up to batch-size; a smaller batch is handed over
+    // once no further message has arrived for batch-wait-ms
+    @Value("${indexer.batch.size:50}")
+    private int batchSize;
+
+    @Value("${indexer.batch.wait-ms:200}")
+    private long batchWaitMs;
+
+    @Value("${indexer.batch.consumers:1}")
+    private int batchConsumers;
 
     @Bean
     public TopicExchange documentExchange() {
         return new TopicExchange(DOCUMENT_EXCHANGE);
     }
 
+    @Bean
+    public TopicExchange documentEventsExchange() {
+        return new TopicExchange(DOCUMENT_EVENTS_EXCHANGE);
+    }
+
     @Bean
     public Queue documentIndexQueue() {
         return new Queue(DOCUMENT_INDEX_QUEUE, true);
@@ -42,6 +65,27 @@ public class RabbitMQConfig {
         return new Jackson2JsonMessageConverter(objectMapper);
     }
 
+    /**
+     * Container factory of the batch index listener: whole batches of raw messages, acknowledged
+     * by the listener one delivery at a time
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchIndexListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchWaitMs);
+        // Enough prefetched deliveries to fill the next batch while the current one is indexed
+        factory.setPrefetchCount(batchSize * 2);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setConcurrentConsumers(batchConsumers);
+        factory.setMaxConcurrentConsumers(batchConsumers);
+        return factory;
+    }
+
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
@@ -0,0 +1,28 @@
+package com.documentsearch.indexer_worker.config;
+
+import com.documentsearch.shared_models.storage.BlobStore;
+import com.documentsearch.shared_models.storage.FsyncPolicy;
+import com.documentsearch.shared_models.storage.LocalBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+@Configuration
+public class StorageConfig {
+
+    @Value("${document.storage.path:./document-storage}")
+    private String storagePath;
+
+    @Value("${document.storage.shard-depth:2}")
+    private int shardDepth;
+
+    /**
+     * Read access to the blobs written by document-management-service
+     */
+    @Bean
+    public BlobStore blobStore() {
+        return new LocalBlobStore(Paths.get(storagePath), shardDepth, FsyncPolicy.NONE);
+    }
+}
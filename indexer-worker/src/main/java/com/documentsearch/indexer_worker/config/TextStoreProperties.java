@@ -0,0 +1,22 @@
+package com.documentsearch.indexer_worker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Local store of extracted text: indexer.text-store.*
+ */
+@Component
+@ConfigurationProperties(prefix = "indexer.text-store")
+@Data
+public class TextStoreProperties {
+
+    private boolean enabled = true;
+
+    private String path = "./text-store";
+
+    // Compressed bytes kept on disk; least recently used text is evicted beyond this
+    private DataSize maxSize = DataSize.ofGigabytes(10);
+}
@@ -0,0 +1,18 @@
+package com.documentsearch.indexer_worker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStatusEvent implements Serializable {
+    private Long documentId;
+    private String tenantId;
+    private String status; // PROCESSING, INDEXED, FAILED
+    private LocalDateTime occurredAt;
+}
@@ -53,4 +53,7 @@ public class DocumentSearchIndex {
 
     @Field(type = FieldType.Text)
     private String filePath;
+
+    @Field(type = FieldType.Keyword)
+    private String contentDigest;
 }
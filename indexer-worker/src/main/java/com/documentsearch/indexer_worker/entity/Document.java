@@ -33,6 +33,9 @@ public class Document {
     @Column(nullable = false)
     private Long fileSize;
 
+    @Column(length = 64)
+    private String contentDigest; // SHA-256 of the content
+
     @Column(nullable = false)
     private String tenantId; // Tenant identifier for multi-tenancy
 
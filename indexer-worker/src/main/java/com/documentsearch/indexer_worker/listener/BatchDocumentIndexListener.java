@@ -0,0 +1,92 @@
+package com.documentsearch.indexer_worker.listener;
+
+import com.documentsearch.indexer_worker.config.RabbitMQConfig;
+import com.documentsearch.indexer_worker.dto.DocumentIndexMessage;
+import com.documentsearch.indexer_worker.service.IndexingPipeline;
+import com.rabbitmq.client.Channel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumes index messages in batches (see RabbitMQConfig) and hands each batch to the indexing
+ * pipeline without waiting for it. Every delivery is acked or nacked on its own outcome once the
+ * pipeline is done with the batch.
+ */
+@Component
+@ConditionalOnProperty(name = "indexer.batch.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class BatchDocumentIndexListener {
+
+    private final IndexingPipeline indexingPipeline;
+    private final MessageConverter messageConverter;
+
+    @RabbitListener(queues = RabbitMQConfig.DOCUMENT_INDEX_QUEUE, containerFactory = "batchIndexListenerContainerFactory")
+    public void handleDocumentIndexMessages(List<Message> messages, Channel channel) throws IOException {
+        log.info("Received batch of {} index messages", messages.size());
+
+        List<Message> accepted = new ArrayList<>(messages.size());
+        List<IndexingPipeline.BatchItem> items = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            long deliveryTag = message.getMessageProperties().getDeliveryTag();
+            try {
+                DocumentIndexMessage indexMessage = (DocumentIndexMessage) messageConverter.fromMessage(message);
+                // A message that was already redelivered once gets no further retries
+                items.add(new IndexingPipeline.BatchItem(indexMessage,
+                        Boolean.TRUE.equals(message.getMessageProperties().isRedelivered())));
+                accepted.add(message);
+            } catch (RuntimeException e) {
+                log.error("Discarding unreadable index message with delivery tag {}", deliveryTag, e);
+                channel.basicNack(deliveryTag, false, false);
+            }
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+
+        // Acks are sent when the pipeline finishes the batch; until then the deliveries count
+        // against the prefetch, which bounds how much work is in flight
+        indexingPipeline.indexBatch(items).whenComplete((outcomes, error) -> {
+            try {
+                if (error != null) {
+                    log.error("Failed to index batch of {} messages, returning them to the queue", items.size(), error);
+                    for (Message message : accepted) {
+                        channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, true);
+                    }
+                    return;
+                }
+                acknowledge(accepted, outcomes, channel);
+            } catch (IOException | RuntimeException e) {
+                // The channel is gone; the broker redelivers whatever was not acknowledged
+                log.error("Failed to acknowledge batch of {} messages", accepted.size(), e);
+            }
+        });
+    }
+
+    private void acknowledge(List<Message> messages, List<IndexingPipeline.Outcome> outcomes, Channel channel)
+            throws IOException {
+        int indexed = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            long deliveryTag = messages.get(i).getMessageProperties().getDeliveryTag();
+            switch (outcomes.get(i)) {
+                case INDEXED -> {
+                    channel.basicAck(deliveryTag, false);
+                    indexed++;
+                }
+                case RETRY -> channel.basicNack(deliveryTag, false, true);
+                // In production, you might want to dead-letter these instead
+                case FAILED -> channel.basicNack(deliveryTag, false, false);
+            }
+        }
+        log.info("Indexed {} of {} documents in batch", indexed, messages.size());
+    }
+}
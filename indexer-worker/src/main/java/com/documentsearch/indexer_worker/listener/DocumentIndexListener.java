@@ -5,9 +5,14 @@ import com.documentsearch.indexer_worker.service.DocumentIndexingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+/**
+ * One message at a time; used when batch indexing is disabled (indexer.batch.enabled=false)
+ */
 @Component
+@ConditionalOnProperty(name = "indexer.batch.enabled", havingValue = "false")
 @RequiredArgsConstructor
 @Slf4j
 public class DocumentIndexListener {
@@ -20,7 +25,8 @@ public class DocumentIndexListener {
                 message.getDocumentId(), message.getFileName());
 
         try {
-            documentIndexingService.indexDocument(message.getDocumentId(), message.getFilePath());
+            documentIndexingService.indexDocument(message.getDocumentId(), message.getFilePath(),
+                    message.getSourceDocumentId());
             log.info("Successfully processed message for document ID: {}", message.getDocumentId());
         } catch (Exception e) {
             log.error("Failed to process message for document ID: {}", message.getDocumentId(), e);
@@ -4,15 +4,19 @@ import com.documentsearch.indexer_worker.elasticsearch.DocumentSearchIndex;
 import com.documentsearch.indexer_worker.elasticsearch.DocumentSearchRepository;
 import com.documentsearch.indexer_worker.entity.Document;
 import com.documentsearch.indexer_worker.repository.DocumentRepository;
+import com.documentsearch.shared_models.storage.BlobStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.tika.Tika;
+import org.apache.tika.exception.TikaException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -21,61 +25,162 @@ public class DocumentIndexingService {
 
     private final DocumentRepository documentRepository;
     private final DocumentSearchRepository documentSearchRepository;
-    private final Tika tika = new Tika();
+    private final IndexChangePublisher indexChangePublisher;
+    private final DocumentStatusPublisher documentStatusPublisher;
+    private final BlobStore blobStore;
+    private final TextExtractor textExtractor;
+    private final ExtractedTextStore extractedTextStore;
 
-    @Transactional
-    public void indexDocument(Long documentId, String filePath) {
+    /**
+     * Extract and index a document. When text of identical content is in the text store, or
+     * sourceDocumentId names an indexed document of the same tenant with identical content, that
+     * text is reused and the file is not parsed.
+     *
+     * Each status change is saved on its own, not in one transaction around the extraction, so
+     * it is visible as soon as its status event is published and FAILED is not rolled back.
+     */
+    public void indexDocument(Long documentId, String filePath, Long sourceDocumentId) {
         log.info("Starting indexing for document ID: {} at path: {}", documentId, filePath);
 
-        Document document = documentRepository.findById(documentId)
-                .orElseThrow(() -> new RuntimeException("Document not found with ID: " + documentId));
-
+        Document document = startProcessing(documentId);
         try {
-            // Update status to PROCESSING
-            document.setStatus("PROCESSING");
-            documentRepository.save(document);
-
-            // Extract text from document using Apache Tika
-            File file = new File(filePath);
-            if (!file.exists()) {
-                throw new RuntimeException("File not found at path: " + filePath);
-            }
-
-            log.info("Extracting text from file: {}", file.getName());
-            String extractedText = tika.parseToString(file);
+            String extractedText = extractText(document, filePath, sourceDocumentId);
+            DocumentSearchIndex searchIndex = toSearchIndex(document, extractedText);
 
-            log.info("Extracted {} characters from document {}", extractedText.length(), documentId);
-
-            // Update document status (NO extracted text stored in MySQL)
-            document.setStatus("INDEXED");
-            document.setIndexedAt(LocalDateTime.now());
-            documentRepository.save(document);
-
-            // Index to Elasticsearch with both metadata and content
             log.info("Indexing document to Elasticsearch: {}", documentId);
-            DocumentSearchIndex searchIndex = new DocumentSearchIndex();
-            searchIndex.setId(documentId.toString());
-            searchIndex.setFileName(document.getFileName());
-            searchIndex.setContentType(document.getContentType());
-            searchIndex.setFileType(document.getFileType());
-            searchIndex.setFileSize(document.getFileSize());
-            searchIndex.setTenantId(document.getTenantId());
-            searchIndex.setContent(extractedText); // Content ONLY stored in Elasticsearch
-            searchIndex.setUploadedAt(document.getUploadedAt());
-            searchIndex.setIndexedAt(document.getIndexedAt());
-            searchIndex.setStatus(document.getStatus());
-            searchIndex.setFilePath(document.getFilePath());
-
             documentSearchRepository.save(searchIndex);
             log.info("Successfully indexed document to Elasticsearch: {} for tenant: {}", documentId, document.getTenantId());
 
+            // The repository refreshes the index on save, so the document is already searchable
+            markIndexed(document);
+
             log.info("Successfully indexed document ID: {}", documentId);
 
         } catch (Exception e) {
             log.error("Error indexing document ID: {}", documentId, e);
-            document.setStatus("FAILED");
-            documentRepository.save(document);
+            markFailed(document);
             throw new RuntimeException("Failed to index document", e);
         }
     }
+
+    /**
+     * Load a document and move it to PROCESSING
+     */
+    public Document startProcessing(Long documentId) {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new RuntimeException("Document not found with ID: " + documentId));
+        document.setStatus("PROCESSING");
+        document = documentRepository.save(document);
+        documentStatusPublisher.statusChanged(document);
+        return document;
+    }
+
+    /**
+     * The document's text, reused from the text store or an indexed document with the same
+     * content if possible, otherwise extracted from the file with Apache Tika
+     */
+    public String extractText(Document document, String filePath, Long sourceDocumentId)
+            throws IOException, TikaException {
+        Optional<String> reused = reusableText(document, sourceDocumentId);
+        if (reused.isPresent()) {
+            return reused.get();
+        }
+
+        try (InputStream content = openContent(document, filePath)) {
+            return parse(document, content);
+        }
+    }
+
+    /**
+     * Extract text from a document's content with Apache Tika, out of process unless configured otherwise
+     */
+    public String parse(Document document, InputStream content) throws IOException, TikaException {
+        log.info("Extracting text from file: {}", document.getFileName());
+        String extractedText = textExtractor.extract(document, content);
+        log.info("Extracted {} characters from document {}", extractedText.length(), document.getId());
+        extractedTextStore.put(document.getContentDigest(), extractedText);
+        return extractedText;
+    }
+
+    /**
+     * The Elasticsearch document for an indexed document; stamps the entity INDEXED (not yet saved)
+     */
+    public DocumentSearchIndex toSearchIndex(Document document, String extractedText) {
+        document.setStatus("INDEXED");
+        document.setIndexedAt(LocalDateTime.now());
+
+        DocumentSearchIndex searchIndex = new DocumentSearchIndex();
+        searchIndex.setId(document.getId().toString());
+        searchIndex.setFileName(document.getFileName());
+        searchIndex.setContentType(document.getContentType());
+        searchIndex.setFileType(document.getFileType());
+        searchIndex.setFileSize(document.getFileSize());
+        searchIndex.setTenantId(document.getTenantId());
+        searchIndex.setContent(extractedText); // Content ONLY stored in Elasticsearch, not in MySQL
+        searchIndex.setUploadedAt(document.getUploadedAt());
+        searchIndex.setIndexedAt(document.getIndexedAt());
+        searchIndex.setStatus(document.getStatus());
+        searchIndex.setFilePath(document.getFilePath());
+        searchIndex.setContentDigest(document.getContentDigest());
+        return searchIndex;
+    }
+
+    /**
+     * Save INDEXED once the document is searchable and announce it
+     */
+    public void markIndexed(Document document) {
+        Document saved = documentRepository.save(document);
+        indexChangePublisher.documentIndexed(saved.getId(), saved.getTenantId());
+        documentStatusPublisher.statusChanged(saved);
+    }
+
+    public void markFailed(Document document) {
+        document.setStatus("FAILED");
+        document.setIndexedAt(null);
+        Document saved = documentRepository.save(document);
+        documentStatusPublisher.statusChanged(saved);
+    }
+
+    /**
+     * Read a document's file through the blob store, which decompresses compressed blobs as
+     * Tika reads them. Files written before content addressing have no digest and are read
+     * from their recorded path.
+     */
+    public InputStream openContent(Document document, String filePath) throws IOException {
+        String digest = document.getContentDigest();
+        if (digest != null && blobStore.exists(digest)) {
+            return blobStore.open(digest);
+        }
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            throw new RuntimeException("File not found at path: " + filePath);
+        }
+        return Files.newInputStream(path);
+    }
+
+    /**
+     * Text already extracted for the document's content: from the local text store by content
+     * digest, or else from the indexed source document if it belongs to the same tenant
+     */
+    public Optional<String> reusableText(Document document, Long sourceDocumentId) {
+        Optional<String> stored = extractedTextStore.get(document.getContentDigest());
+        if (stored.isPresent()) {
+            log.info("Reusing stored text for document {}", document.getId());
+            return stored;
+        }
+        if (sourceDocumentId == null || document.getContentDigest() == null) {
+            return Optional.empty();
+        }
+        Optional<String> text = documentSearchRepository.findById(sourceDocumentId.toString())
+                .filter(source -> document.getTenantId().equals(source.getTenantId()))
+                .filter(source -> document.getContentDigest().equals(source.getContentDigest()))
+                .map(DocumentSearchIndex::getContent);
+        if (text.isPresent()) {
+            log.info("Reusing extracted text of document {} for document {}", sourceDocumentId, document.getId());
+        } else {
+            log.info("Source document {} not available in index, extracting document {}",
+                    sourceDocumentId, document.getId());
+        }
+        return text;
+    }
 }
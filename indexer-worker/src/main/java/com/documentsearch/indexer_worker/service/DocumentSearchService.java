@@ -22,6 +22,7 @@ public class DocumentSearchService {
 
     private final DocumentSearchRepository documentSearchRepository;
     private final ElasticsearchOperations elasticsearchOperations;
+    private final IndexChangePublisher indexChangePublisher;
 
     /**
      * Search documents by query string in both metadata and content (tenant-aware)
@@ -126,6 +127,7 @@ public class DocumentSearchService {
         DocumentSearchIndex doc = documentSearchRepository.findById(id).orElse(null);
         if (doc != null && doc.getTenantId().equals(tenantId)) {
             documentSearchRepository.deleteById(id);
+            indexChangePublisher.documentDeleted(Long.valueOf(id), tenantId);
         } else {
             log.warn("Cannot delete document {} - tenant mismatch or not found", id);
         }
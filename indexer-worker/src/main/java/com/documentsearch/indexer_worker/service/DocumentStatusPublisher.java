@@ -0,0 +1,39 @@
+package com.documentsearch.indexer_worker.service;
+
+import com.documentsearch.indexer_worker.config.RabbitMQConfig;
+import com.documentsearch.indexer_worker.dto.DocumentStatusEvent;
+import com.documentsearch.indexer_worker.entity.Document;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publishes document status transitions so the API gateway can push them to subscribed clients
+ * instead of clients polling for them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentStatusPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    /**
+     * Publish the document's current status; call after the status has been saved
+     */
+    public void statusChanged(Document document) {
+        DocumentStatusEvent event = new DocumentStatusEvent(
+                document.getId(), document.getTenantId(), document.getStatus(), LocalDateTime.now());
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.DOCUMENT_EVENTS_EXCHANGE,
+                    RabbitMQConfig.DOCUMENT_STATUS_ROUTING_KEY, event);
+            log.debug("Published status {} for document ID: {}", event.getStatus(), event.getDocumentId());
+        } catch (Exception e) {
+            // Clients can still read the status from document-management-service
+            log.error("Error publishing status event for document ID: {}", event.getDocumentId(), e);
+        }
+    }
+}
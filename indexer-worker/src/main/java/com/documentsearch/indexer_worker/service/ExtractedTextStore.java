@@ -0,0 +1,249 @@
+package com.documentsearch.indexer_worker.service;
+
+import com.documentsearch.indexer_worker.config.TextStoreProperties;
+import com.documentsearch.shared_models.storage.BlobCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Extracted text on local disk, keyed by the content digest of the file and the extractor
+ * version, so a file is parsed again only when its bytes or the extractor change.
+ *
+ * Text is deflated and lives at <path>/texts/<extractor version>/ab/abcd....deflate, written to
+ * tmp/ first and renamed into place. The store is bounded by indexer.text-store.max-size: once
+ * it is exceeded the least recently used entries are deleted until it is below 90% of the limit.
+ * Recency survives restarts through the files' modification times, which reads refresh; text of
+ * an older extractor version is never read again and is therefore evicted first.
+ */
+@Service
+@Slf4j
+public class ExtractedTextStore {
+
+    private static final double EVICT_TO_RATIO = 0.9;
+
+    private final TextStoreProperties properties;
+    private final String extractorVersion;
+    private final Counter hits;
+    private final Counter misses;
+
+    private Path textRoot;
+    private Path tempDirectory;
+
+    // Entry sizes in least recently used order; guarded by this
+    private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSize;
+
+    public ExtractedTextStore(TextStoreProperties properties, TextExtractor textExtractor, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.extractorVersion = textExtractor.version();
+        this.hits = Counter.builder("indexer.text-store.lookups")
+                .description("Lookups of extracted text by content digest")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("indexer.text-store.lookups")
+                .description("Lookups of extracted text by content digest")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("indexer.text-store.size", this, ExtractedTextStore::size)
+                .description("Compressed bytes of extracted text on disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path root = Paths.get(properties.getPath()).toAbsolutePath().normalize();
+        textRoot = root.resolve("texts");
+        tempDirectory = root.resolve("tmp");
+        Files.createDirectories(textRoot);
+        Files.createDirectories(tempDirectory);
+
+        // Leftovers of writes interrupted by a crash
+        try (Stream<Path> files = Files.list(tempDirectory)) {
+            files.forEach(this::deleteQuietly);
+        }
+
+        record Entry(Path path, long size, FileTime lastUsed) {
+        }
+        List<Entry> found;
+        try (Stream<Path> files = Files.walk(textRoot)) {
+            found = files.filter(Files::isRegularFile)
+                    .map(path -> {
+                        try {
+                            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                            return new Entry(path, attributes.size(), attributes.lastModifiedTime());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .sorted(Comparator.comparing(Entry::lastUsed))
+                    .toList();
+        }
+        List<Path> evicted;
+        synchronized (this) {
+            for (Entry entry : found) {
+                entries.put(entry.path(), entry.size());
+                totalSize += entry.size();
+            }
+            evicted = evictIfFull();
+        }
+        evicted.forEach(this::deleteQuietly);
+        log.info("Extracted text store at {} holds {} entries, {} bytes (extractor version {})",
+                root, found.size() - evicted.size(), size(), extractorVersion);
+    }
+
+    /**
+     * Text stored for a file with this content digest by the current extractor
+     */
+    public Optional<String> get(String digest) {
+        if (!properties.isEnabled() || digest == null) {
+            return Optional.empty();
+        }
+        Path path = path(digest);
+        synchronized (this) {
+            // Also marks the entry as most recently used
+            if (entries.get(path) == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+        }
+        try (InputStream in = BlobCodec.DEFLATE.decode(new BufferedInputStream(Files.newInputStream(path)))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            hits.increment();
+            return Optional.of(text);
+        } catch (IOException e) {
+            // Evicted meanwhile, or unreadable; either way it is extracted again
+            log.warn("Cannot read stored text {}: {}", path, e.getMessage());
+            remove(path);
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Keep the text extracted from a file with this content digest. Failures are logged and
+     * otherwise ignored: the store only saves work, it never decides an indexing outcome.
+     */
+    public void put(String digest, String text) {
+        if (!properties.isEnabled() || digest == null) {
+            return;
+        }
+        Path path = path(digest);
+        synchronized (this) {
+            if (entries.containsKey(path)) {
+                return;
+            }
+        }
+
+        Path tempFile = tempDirectory.resolve(UUID.randomUUID() + ".tmp");
+        long size;
+        try {
+            try (OutputStream out = BlobCodec.DEFLATE.encode(Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW))) {
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+            size = Files.size(tempFile);
+            if (size > properties.getMaxSize().toBytes()) {
+                deleteQuietly(tempFile);
+                return;
+            }
+            Files.createDirectories(path.getParent());
+            Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Cannot store extracted text for digest {}: {}", digest, e.getMessage());
+            deleteQuietly(tempFile);
+            return;
+        }
+
+        List<Path> evicted;
+        synchronized (this) {
+            Long previous = entries.put(path, size);
+            totalSize += size - (previous != null ? previous : 0);
+            evicted = evictIfFull();
+        }
+        evicted.forEach(this::deleteQuietly);
+        if (!evicted.isEmpty()) {
+            log.info("Evicted {} least recently used texts from the extracted text store", evicted.size());
+        }
+    }
+
+    public synchronized long size() {
+        return totalSize;
+    }
+
+    private synchronized void remove(Path path) {
+        Long size = entries.remove(path);
+        if (size != null) {
+            totalSize -= size;
+        }
+    }
+
+    /**
+     * Drop the least recently used entries once the store is over its limit; the caller deletes
+     * the returned files outside the lock
+     */
+    private List<Path> evictIfFull() {
+        long maxSize = properties.getMaxSize().toBytes();
+        List<Path> evicted = new ArrayList<>();
+        if (totalSize <= maxSize) {
+            return evicted;
+        }
+        long target = (long) (maxSize * EVICT_TO_RATIO);
+        Iterator<Map.Entry<Path, Long>> iterator = entries.entrySet().iterator();
+        while (totalSize > target && iterator.hasNext()) {
+            Map.Entry<Path, Long> eldest = iterator.next();
+            totalSize -= eldest.getValue();
+            evicted.add(eldest.getKey());
+            iterator.remove();
+        }
+        return evicted;
+    }
+
+    private Path path(String digest) {
+        if (digest.length() < 2 || !digest.matches("[0-9a-f]+")) {
+            throw new IllegalArgumentException("Not a hex digest: " + digest);
+        }
+        return textRoot.resolve(extractorVersion)
+                .resolve(digest.substring(0, 2))
+                .resolve(digest + BlobCodec.DEFLATE.fileSuffix());
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Cannot delete {}: {}", path, e.getMessage());
+        }
+    }
+}
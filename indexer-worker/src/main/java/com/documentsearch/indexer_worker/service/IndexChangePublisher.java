@@ -0,0 +1,42 @@
+package com.documentsearch.indexer_worker.service;
+
+import com.documentsearch.indexer_worker.config.RabbitMQConfig;
+import com.documentsearch.indexer_worker.dto.IndexChangeEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publishes index change events so document-search-service can invalidate
+ * the tenant's cached search results.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndexChangePublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public void documentIndexed(Long documentId, String tenantId) {
+        publish(RabbitMQConfig.DOCUMENT_INDEXED_ROUTING_KEY, new IndexChangeEvent(
+                documentId, tenantId, "INDEXED", LocalDateTime.now()));
+    }
+
+    public void documentDeleted(Long documentId, String tenantId) {
+        publish(RabbitMQConfig.DOCUMENT_DELETED_ROUTING_KEY, new IndexChangeEvent(
+                documentId, tenantId, "DELETED", LocalDateTime.now()));
+    }
+
+    private void publish(String routingKey, IndexChangeEvent event) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.DOCUMENT_EVENTS_EXCHANGE, routingKey, event);
+            log.debug("Published {} event for document ID: {}", event.getAction(), event.getDocumentId());
+        } catch (Exception e) {
+            // Cached results still expire through their TTL, so indexing must not fail here
+            log.error("Error publishing index change event for document ID: {}", event.getDocumentId(), e);
+        }
+    }
+}
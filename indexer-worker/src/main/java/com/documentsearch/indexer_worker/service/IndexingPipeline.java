@@ -0,0 +1,282 @@
+package com.documentsearch.indexer_worker.service;
+
+import com.documentsearch.indexer_worker.config.PipelineProperties;
+import com.documentsearch.indexer_worker.dto.DocumentIndexMessage;
+import com.documentsearch.indexer_worker.elasticsearch.DocumentSearchIndex;
+import com.documentsearch.indexer_worker.entity.Document;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.query.BulkOptions;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Indexes batches of documents in stages, each with its own bounded queue and workers:
+ *
+ *   fetch (MySQL: load, mark PROCESSING) → read (file or reusable text) → extract (Tika, then
+ *   build the search document) → write (one Elasticsearch _bulk per batch) → status (MySQL and
+ *   events, per document)
+ *
+ * I/O-bound and CPU-bound work no longer wait on each other: while one document is parsed the
+ * next ones are being fetched and read. A full stage blocks whoever feeds it, so backpressure
+ * reaches the AMQP consumer, whose unacknowledged deliveries are capped by the prefetch count.
+ * Files buffered between the read and extract stages share a byte budget, so queued work cannot
+ * hold more than indexer.pipeline.max-buffered-bytes of file content in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndexingPipeline {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final DocumentIndexingService documentIndexingService;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final PipelineProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private PipelineStage fetchStage;
+    private PipelineStage readStage;
+    private PipelineStage extractStage;
+    private PipelineStage writeStage;
+    private PipelineStage statusStage;
+
+    // Bytes of file content that may be held between the read and extract stages
+    private Semaphore bufferBudget;
+    private int bufferBudgetBytes;
+
+    /**
+     * A message to index; on its final attempt a transient failure is recorded as FAILED
+     * instead of being retried
+     */
+    public record BatchItem(DocumentIndexMessage message, boolean finalAttempt) {
+    }
+
+    public enum Outcome {
+        INDEXED,
+        FAILED, // recorded as FAILED; redelivery would not help
+        RETRY   // transient failure, nothing recorded; the message should be redelivered
+    }
+
+    // Output of the read stage: reused text, the file's bytes, or neither if the file is streamed.
+    // reservedBytes is the buffer budget held for the bytes until they have been parsed.
+    private record Content(String text, byte[] bytes, int reservedBytes) {
+
+        Content(String text, byte[] bytes) {
+            this(text, bytes, 0);
+        }
+    }
+
+    // Output of the extract stage; document is null if it could not be loaded
+    private record Extracted(Document document, DocumentSearchIndex searchIndex, Throwable failure) {
+    }
+
+    private record BulkResult(Map<String, BulkFailureException.FailureDetails> failedItems, boolean requestFailed) {
+    }
+
+    @PostConstruct
+    void init() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        fetchStage = stage("fetch", properties.getFetch(), cores);
+        readStage = stage("read", properties.getRead(), cores);
+        extractStage = stage("extract", properties.getExtract(), cores);
+        writeStage = stage("write", properties.getWrite(), cores);
+        statusStage = stage("status", properties.getStatus(), cores);
+
+        bufferBudgetBytes = (int) Math.min(Integer.MAX_VALUE, properties.getMaxBufferedBytes().toBytes());
+        bufferBudget = new Semaphore(bufferBudgetBytes);
+        Gauge.builder("indexer.pipeline.buffered", bufferBudget, budget -> bufferBudgetBytes - budget.availablePermits())
+                .description("Bytes of file content buffered between the read and extract stages")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (PipelineStage stage : List.of(fetchStage, readStage, extractStage, writeStage, statusStage)) {
+            stage.shutdown();
+        }
+    }
+
+    /**
+     * Feed a batch into the pipeline. Blocks only while the fetch stage is full; the outcomes,
+     * in the order of the items, complete once every document's status has been recorded.
+     */
+    public CompletableFuture<List<Outcome>> indexBatch(List<BatchItem> items) {
+        List<CompletableFuture<Extracted>> extractions = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            extractions.add(extract(item.message()));
+        }
+
+        return CompletableFuture.allOf(extractions.toArray(new CompletableFuture[0]))
+                .thenCompose(done -> {
+                    List<Extracted> extracted = extractions.stream().map(CompletableFuture::join).toList();
+                    return writeStage.submit(() -> bulkWrite(extracted))
+                            .thenCompose(result -> recordOutcomes(items, extracted, result));
+                });
+    }
+
+    /**
+     * Fetch, read and extract one document. Never completes exceptionally: failures are carried
+     * in the result so the rest of the batch goes on.
+     */
+    private CompletableFuture<Extracted> extract(DocumentIndexMessage message) {
+        Long documentId = message.getDocumentId();
+        return fetchStage.submit(() -> documentIndexingService.startProcessing(documentId))
+                .thenCompose(document -> readStage.submit(() -> read(document, message))
+                        .thenCompose(content -> content.text() != null
+                                ? CompletableFuture.completedFuture(content.text())
+                                : extractStage.submit(() -> parse(document, message, content)))
+                        // Building the search document is cheap; it runs on the thread that produced the text
+                        .thenApply(text -> new Extracted(document, documentIndexingService.toSearchIndex(document, text), null))
+                        .exceptionally(e -> {
+                            log.error("Error extracting document ID: {}", documentId, e);
+                            return new Extracted(document, null, e);
+                        }))
+                .exceptionally(e -> {
+                    log.error("Cannot start indexing document ID: {}", documentId, e);
+                    return new Extracted(null, null, e);
+                });
+    }
+
+    /**
+     * Read stage: stored text or that of an indexed duplicate, or the file itself when it is small
+     * enough to buffer and fits in what is left of the buffer budget. The budget taken is
+     * returned once the extract stage is done with the bytes.
+     */
+    private Content read(Document document, DocumentIndexMessage message) throws IOException {
+        Optional<String> reused = documentIndexingService.reusableText(document, message.getSourceDocumentId());
+        if (reused.isPresent()) {
+            return new Content(reused.get(), null);
+        }
+        Long fileSize = document.getFileSize();
+        if (fileSize == null || fileSize > properties.getMaxBufferedFileSize().toBytes()
+                || fileSize > bufferBudgetBytes || !bufferBudget.tryAcquire(fileSize.intValue())) {
+            // Streamed by the extract stage instead; never waits, so the read stage keeps moving
+            return new Content(null, null);
+        }
+        try (InputStream in = documentIndexingService.openContent(document, message.getFilePath())) {
+            // The recorded size bounds what is buffered; a file that turns out larger is streamed
+            byte[] bytes = in.readNBytes(fileSize.intValue());
+            if (in.read() != -1) {
+                bufferBudget.release(fileSize.intValue());
+                return new Content(null, null);
+            }
+            return new Content(null, bytes, fileSize.intValue());
+        } catch (IOException | RuntimeException e) {
+            bufferBudget.release(fileSize.intValue());
+            throw e;
+        }
+    }
+
+    /**
+     * Extract stage: parse buffered bytes, or stream large files straight from storage
+     */
+    private String parse(Document document, DocumentIndexMessage message, Content content) throws Exception {
+        try (InputStream in = content.bytes() != null
+                ? new ByteArrayInputStream(content.bytes())
+                : documentIndexingService.openContent(document, message.getFilePath())) {
+            return documentIndexingService.parse(document, in);
+        } finally {
+            bufferBudget.release(content.reservedBytes());
+        }
+    }
+
+    /**
+     * Write stage: all extracted documents of the batch in one bulk request, refreshed once so
+     * every document is searchable before it is announced
+     */
+    private BulkResult bulkWrite(List<Extracted> extracted) {
+        List<IndexQuery> queries = extracted.stream()
+                .filter(e -> e.searchIndex() != null)
+                .map(e -> new IndexQueryBuilder()
+                        .withId(e.searchIndex().getId())
+                        .withObject(e.searchIndex())
+                        .build())
+                .toList();
+        if (queries.isEmpty()) {
+            return new BulkResult(Map.of(), false);
+        }
+        try {
+            BulkOptions options = BulkOptions.builder().withRefreshPolicy(RefreshPolicy.WAIT_UNTIL).build();
+            elasticsearchOperations.bulkIndex(queries, options, DocumentSearchIndex.class);
+            log.info("Bulk indexed {} documents to Elasticsearch", queries.size());
+            return new BulkResult(Map.of(), false);
+        } catch (BulkFailureException e) {
+            log.warn("Bulk indexing failed for {} of {} documents", e.getFailedDocuments().size(), queries.size());
+            return new BulkResult(e.getFailedDocuments(), false);
+        } catch (RuntimeException e) {
+            log.error("Bulk request of {} documents failed", queries.size(), e);
+            return new BulkResult(Map.of(), true);
+        }
+    }
+
+    /**
+     * Status stage: record each document's result in MySQL and publish its events
+     */
+    private CompletableFuture<List<Outcome>> recordOutcomes(List<BatchItem> items, List<Extracted> extracted,
+                                                           BulkResult result) {
+        List<CompletableFuture<Outcome>> outcomes = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            Extracted document = extracted.get(i);
+            outcomes.add(statusStage.submit(() -> recordOutcome(item, document, result)));
+        }
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0]))
+                .thenApply(done -> outcomes.stream().map(CompletableFuture::join).toList());
+    }
+
+    private Outcome recordOutcome(BatchItem item, Extracted extracted, BulkResult result) {
+        if (extracted.document() == null) {
+            return Outcome.FAILED;
+        }
+        if (extracted.searchIndex() == null) {
+            documentIndexingService.markFailed(extracted.document());
+            return Outcome.FAILED;
+        }
+
+        BulkFailureException.FailureDetails failure = result.failedItems().get(extracted.searchIndex().getId());
+        if (!result.requestFailed() && failure == null) {
+            documentIndexingService.markIndexed(extracted.document());
+            return Outcome.INDEXED;
+        }
+        if (!item.finalAttempt() && (result.requestFailed() || isRetryable(failure))) {
+            return Outcome.RETRY;
+        }
+        log.error("Elasticsearch rejected document ID {}: {}", extracted.document().getId(),
+                failure != null ? failure.errorMessage() : "bulk request failed");
+        documentIndexingService.markFailed(extracted.document());
+        return Outcome.FAILED;
+    }
+
+    /**
+     * Rejections under load and server errors may succeed later; mapping and parse errors will not
+     */
+    private boolean isRetryable(BulkFailureException.FailureDetails failure) {
+        Integer status = failure.status();
+        return status == null || status == TOO_MANY_REQUESTS || status >= 500;
+    }
+
+    private PipelineStage stage(String name, PipelineProperties.Stage config, int cores) {
+        int threads = config.getThreads() > 0 ? config.getThreads() : cores;
+        return new PipelineStage(name, threads, Math.max(1, config.getQueueCapacity()), meterRegistry);
+    }
+}
@@ -0,0 +1,93 @@
+package com.documentsearch.indexer_worker.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One stage of the indexing pipeline: a fixed pool of workers fed by a bounded queue.
+ *
+ * Submitting to a full queue blocks the submitter until a slot frees up, so a slow stage holds
+ * back the stage before it and, in the end, the AMQP consumer. Queue depth, active workers,
+ * time spent waiting in the queue and task run time are published per stage.
+ */
+public class PipelineStage {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer runTimer;
+
+    public PipelineStage(String name, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("indexer-" + name + "-"),
+                PipelineStage::waitForSpace);
+
+        Gauge.builder("indexer.pipeline.queue.depth", executor, e -> e.getQueue().size())
+                .description("Tasks waiting for a worker of the stage")
+                .tag("stage", name)
+                .register(meterRegistry);
+        Gauge.builder("indexer.pipeline.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Workers of the stage busy with a task")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("indexer.pipeline.wait")
+                .description("Time tasks spend queued before the stage runs them")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("indexer.pipeline.latency")
+                .description("Time the stage takes to run a task")
+                .tag("stage", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a task on this stage; blocks while the stage's queue is full
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        executor.execute(() -> {
+            long startedAt = System.nanoTime();
+            waitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                runTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        });
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static void waitForSpace(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Pipeline stage is shut down");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for pipeline stage capacity", e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.documentsearch.indexer_worker.service;
+
+import com.documentsearch.indexer_worker.config.ExtractionProperties;
+import com.documentsearch.indexer_worker.entity.Document;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.Tika;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.fork.ForkParser;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.stereotype.Service;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracts text with Apache Tika, by default in a pool of forked JVMs (Tika's ForkParser).
+ *
+ * Each child has its own heap cap; a child that runs past the per-document timeout kills
+ * itself and a child that dies is replaced on the next request, so a pathological file fails
+ * only its own document. Text beyond the configured length is cut off rather than failing the
+ * document. Latency is recorded per file type and outcome (success, truncated, timeout, failed).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TextExtractor {
+
+    private final ExtractionProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private Parser parser;
+    private ForkParser forkParser;
+
+    @PostConstruct
+    void init() {
+        AutoDetectParser autoDetectParser = new AutoDetectParser();
+        if (!properties.isForked()) {
+            parser = autoDetectParser;
+            log.info("Extracting text in-process");
+            return;
+        }
+
+        int poolSize = properties.getPoolSize() > 0
+                ? properties.getPoolSize()
+                : Runtime.getRuntime().availableProcessors();
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+        // The parser and its classes are sent to the children by the worker's class loader
+        forkParser = new ForkParser(getClass().getClassLoader(), autoDetectParser);
+        forkParser.setJavaCommand(List.of(java,
+                "-Xmx" + properties.getMaxHeap().toMegabytes() + "m",
+                "-Djava.awt.headless=true"));
+        forkParser.setPoolSize(poolSize);
+        forkParser.setServerParseTimeoutMillis(properties.getTimeoutMs());
+        forkParser.setMaxFilesProcessedPerServer(properties.getMaxFilesPerProcess());
+        parser = forkParser;
+        log.info("Extracting text in up to {} forked processes with {} heap and {} ms timeout",
+                poolSize, properties.getMaxHeap(), properties.getTimeoutMs());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (forkParser != null) {
+            forkParser.close();
+        }
+    }
+
+    /**
+     * Identifies the text this extractor produces: the same file yields the same text unless
+     * the Tika version or the text length limit changes
+     */
+    public String version() {
+        String tikaVersion = new Tika().toString().replaceFirst("^Apache Tika ", "");
+        return "tika-" + tikaVersion.replaceAll("[^0-9A-Za-z.-]", "_") + "-" + properties.getMaxTextLength();
+    }
+
+    /**
+     * The document's text, at most indexer.extraction.max-text-length characters
+     */
+    public String extract(Document document, InputStream content) throws IOException, TikaException {
+        int maxTextLength = properties.getMaxTextLength();
+        BodyContentHandler handler = new BodyContentHandler(maxTextLength);
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, document.getFileName());
+
+        long start = System.nanoTime();
+        String outcome = "failed";
+        try {
+            try {
+                parser.parse(content, handler, metadata, new ParseContext());
+            } catch (SAXException | TikaException e) {
+                if (!WriteLimitReachedException.isWriteLimitReached(e)) {
+                    if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= properties.getTimeoutMs()) {
+                        outcome = "timeout";
+                    }
+                    throw e instanceof TikaException tikaException
+                            ? tikaException
+                            : new TikaException("Unable to extract text", e);
+                }
+            }
+            String text = handler.toString();
+            if (text.length() >= maxTextLength) {
+                outcome = "truncated";
+                log.warn("Text of document {} truncated to {} characters", document.getId(), maxTextLength);
+            } else {
+                outcome = "success";
+            }
+            return text;
+        } finally {
+            Timer.builder("indexer.extraction.latency")
+                    .description("Time to extract the text of a document")
+                    .tag("fileType", fileTypeTag(document.getFileType()))
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // File types come from upload file names, so unknown ones share a tag to bound cardinality
+    private String fileTypeTag(String fileType) {
+        if (fileType == null) {
+            return "other";
+        }
+        String normalized = fileType.toLowerCase(Locale.ROOT);
+        return properties.getMetricFileTypes().contains(normalized) ? normalized : "other";
+    }
+}
@@ -0,0 +1,117 @@
+package com.documentsearch.indexer_worker.listener;
+
+import com.documentsearch.indexer_worker.dto.DocumentIndexMessage;
+import com.documentsearch.indexer_worker.service.IndexingPipeline;
+import com.rabbitmq.client.Channel;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.documentsearch.indexer_worker.service.IndexingPipeline.Outcome.FAILED;
+import static com.documentsearch.indexer_worker.service.IndexingPipeline.Outcome.INDEXED;
+import static com.documentsearch.indexer_worker.service.IndexingPipeline.Outcome.RETRY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BatchDocumentIndexListenerTest {
+
+    private final IndexingPipeline indexingPipeline = mock(IndexingPipeline.class);
+    private final MessageConverter messageConverter = mock(MessageConverter.class);
+    private final Channel channel = mock(Channel.class);
+    private final BatchDocumentIndexListener listener = new BatchDocumentIndexListener(indexingPipeline, messageConverter);
+
+    @Test
+    void acksAndNacksEachDeliveryOnItsOwnOutcome() throws Exception {
+        List<Message> messages = List.of(message(11, 1, false), message(12, 2, false), message(13, 3, true));
+        when(indexingPipeline.indexBatch(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(INDEXED, RETRY, FAILED)));
+
+        listener.handleDocumentIndexMessages(messages, channel);
+
+        InOrder acks = inOrder(channel);
+        acks.verify(channel).basicAck(11, false);
+        acks.verify(channel).basicNack(12, false, true);
+        acks.verify(channel).basicNack(13, false, false);
+
+        // Only a redelivered message is on its final attempt
+        List<IndexingPipeline.BatchItem> items = submittedItems();
+        assertThat(items).extracting(item -> item.message().getDocumentId()).containsExactly(1L, 2L, 3L);
+        assertThat(items).extracting(IndexingPipeline.BatchItem::finalAttempt).containsExactly(false, false, true);
+    }
+
+    @Test
+    void acknowledgesOnlyOnceThePipelineIsDone() throws Exception {
+        CompletableFuture<List<IndexingPipeline.Outcome>> outcomes = new CompletableFuture<>();
+        when(indexingPipeline.indexBatch(anyList())).thenReturn(outcomes);
+
+        listener.handleDocumentIndexMessages(List.of(message(11, 1, false)), channel);
+        verifyNoInteractions(channel);
+
+        outcomes.complete(List.of(INDEXED));
+        verify(channel).basicAck(11, false);
+    }
+
+    @Test
+    void discardsUnreadableMessagesAndIndexesTheRest() throws Exception {
+        Message unreadable = new Message(new byte[]{1, 2, 3}, properties(12, false));
+        when(messageConverter.fromMessage(unreadable)).thenThrow(new MessageConversionException("bad payload"));
+        when(indexingPipeline.indexBatch(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(INDEXED, INDEXED)));
+
+        listener.handleDocumentIndexMessages(List.of(message(11, 1, false), unreadable, message(13, 3, false)), channel);
+
+        verify(channel).basicNack(12, false, false);
+        verify(channel).basicAck(11, false);
+        verify(channel).basicAck(13, false);
+        assertThat(submittedItems()).extracting(item -> item.message().getDocumentId()).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void requeuesTheWholeBatchWhenThePipelineFails() throws Exception {
+        when(indexingPipeline.indexBatch(anyList()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("pipeline shut down")));
+
+        listener.handleDocumentIndexMessages(List.of(message(11, 1, false), message(12, 2, true)), channel);
+
+        verify(channel).basicNack(11, false, true);
+        verify(channel).basicNack(12, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    private List<IndexingPipeline.BatchItem> submittedItems() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<IndexingPipeline.BatchItem>> items = ArgumentCaptor.forClass(List.class);
+        verify(indexingPipeline).indexBatch(items.capture());
+        return items.getValue();
+    }
+
+    private Message message(long deliveryTag, long documentId, boolean redelivered) {
+        Message message = new Message(new byte[0], properties(deliveryTag, redelivered));
+        DocumentIndexMessage indexMessage = new DocumentIndexMessage();
+        indexMessage.setDocumentId(documentId);
+        when(messageConverter.fromMessage(message)).thenReturn(indexMessage);
+        return message;
+    }
+
+    private static MessageProperties properties(long deliveryTag, boolean redelivered) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        properties.setRedelivered(redelivered);
+        return properties;
+    }
+}
@@ -0,0 +1,171 @@
+package com.documentsearch.indexer_worker.service;
+
+import com.documentsearch.indexer_worker.config.ExtractionProperties;
+import com.documentsearch.indexer_worker.config.TextStoreProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExtractedTextStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private TextStoreProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ExtractedTextStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new TextStoreProperties();
+        properties.setPath(directory.toString());
+        meterRegistry = new SimpleMeterRegistry();
+        store = newStore(meterRegistry);
+    }
+
+    @Test
+    void returnsStoredTextAndCountsLookups() {
+        assertThat(store.get(digest("a"))).isEmpty();
+
+        store.put(digest("a"), "extracted text");
+
+        assertThat(store.get(digest("a"))).contains("extracted text");
+        assertThat(store.size()).isPositive();
+        assertThat(lookups("hit")).isEqualTo(1);
+        assertThat(lookups("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesOnceFull() throws IOException {
+        store.put(digest("a"), randomText(1));
+        long entrySize = store.size();
+        properties.setMaxSize(DataSize.ofBytes(entrySize * 7 / 2));
+        store.put(digest("b"), randomText(2));
+        store.put(digest("c"), randomText(3));
+
+        // Reading a makes b the least recently used entry
+        assertThat(store.get(digest("a"))).isPresent();
+        store.put(digest("d"), randomText(4));
+
+        assertThat(store.get(digest("b"))).isEmpty();
+        assertThat(store.get(digest("a"))).contains(randomText(1));
+        assertThat(store.get(digest("c"))).contains(randomText(3));
+        assertThat(store.get(digest("d"))).contains(randomText(4));
+        assertThat(store.size()).isLessThanOrEqualTo(properties.getMaxSize().toBytes());
+        assertThat(storedFiles()).hasSize(3);
+    }
+
+    @Test
+    void restoresRecencyFromModificationTimesOnRestart() throws IOException {
+        store.put(digest("a"), randomText(1));
+        store.put(digest("b"), randomText(2));
+        store.put(digest("c"), randomText(3));
+        long entrySize = store.size() / 3;
+        // a was used last before the restart, b longest ago
+        setLastModified(digest("a"), Instant.now().minusSeconds(10));
+        setLastModified(digest("b"), Instant.now().minusSeconds(300));
+        setLastModified(digest("c"), Instant.now().minusSeconds(200));
+
+        properties.setMaxSize(DataSize.ofBytes(entrySize * 5 / 2));
+        ExtractedTextStore restarted = newStore(new SimpleMeterRegistry());
+
+        assertThat(restarted.get(digest("b"))).isEmpty();
+        assertThat(restarted.get(digest("c"))).contains(randomText(3));
+        assertThat(restarted.get(digest("a"))).contains(randomText(1));
+    }
+
+    @Test
+    void treatsCorruptFileAsMissAndDropsIt() throws IOException {
+        store.put(digest("a"), "extracted text");
+        Path file = storedFiles().get(0);
+        Files.write(file, "not deflate data".getBytes());
+
+        assertThat(store.get(digest("a"))).isEmpty();
+        assertThat(lookups("miss")).isEqualTo(1);
+        assertThat(store.size()).isZero();
+
+        // The text is stored again after the next extraction
+        store.put(digest("a"), "extracted text");
+        assertThat(store.get(digest("a"))).contains("extracted text");
+    }
+
+    @Test
+    void treatsFileDeletedBehindItsBackAsMiss() throws IOException {
+        store.put(digest("a"), "extracted text");
+        Files.delete(storedFiles().get(0));
+
+        assertThat(store.get(digest("a"))).isEmpty();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void skipsTextLargerThanTheWholeStore() throws IOException {
+        properties.setMaxSize(DataSize.ofBytes(100));
+
+        store.put(digest("a"), randomText(1));
+
+        assertThat(store.get(digest("a"))).isEmpty();
+        assertThat(store.size()).isZero();
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    private ExtractedTextStore newStore(SimpleMeterRegistry registry) throws IOException {
+        TextExtractor textExtractor = new TextExtractor(new ExtractionProperties(), registry);
+        ExtractedTextStore textStore = new ExtractedTextStore(properties, textExtractor, registry);
+        textStore.init();
+        return textStore;
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("indexer.text-store.lookups").tag("result", result).counter().count();
+    }
+
+    private List<Path> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory.resolve("texts"))) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private void setLastModified(String digest, Instant time) throws IOException {
+        Path file = storedFiles().stream()
+                .filter(path -> path.getFileName().toString().startsWith(digest))
+                .findFirst()
+                .orElseThrow();
+        Files.setLastModifiedTime(file, FileTime.from(time));
+    }
+
+    /**
+     * Random letters compress to about the same size, so every entry takes about the same space
+     */
+    private static String randomText(long seed) {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 4000; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        return text.toString();
+    }
+
+    private static String digest(String content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
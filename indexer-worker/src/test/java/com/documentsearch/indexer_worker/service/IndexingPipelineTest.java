@@ -0,0 +1,156 @@
+package com.documentsearch.indexer_worker.service;
+
+import com.documentsearch.indexer_worker.config.PipelineProperties;
+import com.documentsearch.indexer_worker.dto.DocumentIndexMessage;
+import com.documentsearch.indexer_worker.elasticsearch.DocumentSearchIndex;
+import com.documentsearch.indexer_worker.entity.Document;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.BulkOptions;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.documentsearch.indexer_worker.service.IndexingPipeline.Outcome.FAILED;
+import static com.documentsearch.indexer_worker.service.IndexingPipeline.Outcome.INDEXED;
+import static com.documentsearch.indexer_worker.service.IndexingPipeline.Outcome.RETRY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IndexingPipelineTest {
+
+    private final DocumentIndexingService documentIndexingService = mock(DocumentIndexingService.class);
+    private final ElasticsearchOperations elasticsearchOperations = mock(ElasticsearchOperations.class);
+    private final PipelineProperties properties = new PipelineProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private IndexingPipeline pipeline;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties.setExtract(new PipelineProperties.Stage(2, 10));
+        properties.setMaxBufferedBytes(DataSize.ofBytes(100));
+        pipeline = new IndexingPipeline(documentIndexingService, elasticsearchOperations, properties, meterRegistry);
+        pipeline.init();
+
+        when(documentIndexingService.startProcessing(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            if (id == 1L) {
+                // The first document finishes last
+                Thread.sleep(100);
+            }
+            return document(id, 5L);
+        });
+        when(documentIndexingService.reusableText(any(), any())).thenReturn(Optional.empty());
+        when(documentIndexingService.openContent(any(), any()))
+                .thenAnswer(invocation -> new ByteArrayInputStream("bytes".getBytes(StandardCharsets.UTF_8)));
+        when(documentIndexingService.parse(any(), any()))
+                .thenAnswer(invocation -> new String(invocation.<InputStream>getArgument(1).readAllBytes(), StandardCharsets.UTF_8));
+        when(documentIndexingService.toSearchIndex(any(), any())).thenAnswer(invocation -> {
+            DocumentSearchIndex searchIndex = new DocumentSearchIndex();
+            searchIndex.setId(invocation.<Document>getArgument(0).getId().toString());
+            searchIndex.setContent(invocation.getArgument(1));
+            return searchIndex;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void returnsOutcomesInTheOrderOfTheItems() throws Exception {
+        when(documentIndexingService.startProcessing(5L)).thenThrow(new IllegalStateException("no such document"));
+        when(elasticsearchOperations.bulkIndex(anyList(), any(BulkOptions.class), eq(DocumentSearchIndex.class)))
+                .thenThrow(new BulkFailureException("partial failure", Map.of(
+                        "2", new BulkFailureException.FailureDetails(400, "mapper_parsing_exception"),
+                        "3", new BulkFailureException.FailureDetails(429, "es_rejected_execution_exception"),
+                        "4", new BulkFailureException.FailureDetails(503, "unavailable"))));
+
+        List<IndexingPipeline.Outcome> outcomes = index(
+                item(1, false), item(2, false), item(3, false), item(4, true), item(5, false));
+
+        assertThat(outcomes).containsExactly(INDEXED, FAILED, RETRY, FAILED, FAILED);
+        verify(documentIndexingService).markIndexed(document(1L, 5L));
+        verify(documentIndexingService).markFailed(document(2L, 5L));
+        verify(documentIndexingService, never()).markFailed(document(3L, 5L));
+        verify(documentIndexingService).markFailed(document(4L, 5L));
+    }
+
+    @Test
+    void retriesWholeBatchWhenTheBulkRequestFails() throws Exception {
+        when(elasticsearchOperations.bulkIndex(anyList(), any(BulkOptions.class), eq(DocumentSearchIndex.class)))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        List<IndexingPipeline.Outcome> outcomes = index(item(1, false), item(2, true));
+
+        assertThat(outcomes).containsExactly(RETRY, FAILED);
+        verify(documentIndexingService, never()).markFailed(document(1L, 5L));
+        verify(documentIndexingService, never()).markIndexed(any());
+    }
+
+    @Test
+    void failsOnlyTheDocumentWhoseExtractionFails() throws Exception {
+        doThrow(new IllegalStateException("corrupt file")).when(documentIndexingService).parse(eq(document(2L, 5L)), any());
+
+        List<IndexingPipeline.Outcome> outcomes = index(item(1, false), item(2, false), item(3, false));
+
+        assertThat(outcomes).containsExactly(INDEXED, FAILED, INDEXED);
+        verify(documentIndexingService).markFailed(document(2L, 5L));
+        assertThat(bufferedBytes()).isZero();
+    }
+
+    @Test
+    void streamsFilesBeyondTheBufferBudgetAndReturnsTheBudget() throws Exception {
+        // Larger than the whole budget, and a file that is larger than its recorded size
+        when(documentIndexingService.startProcessing(2L)).thenReturn(document(2L, 500L));
+        when(documentIndexingService.startProcessing(3L)).thenReturn(document(3L, 2L));
+
+        List<IndexingPipeline.Outcome> outcomes = index(item(1, false), item(2, false), item(3, false));
+
+        assertThat(outcomes).containsExactly(INDEXED, INDEXED, INDEXED);
+        // The file was parsed whole, whichever way it was read
+        verify(documentIndexingService).toSearchIndex(document(3L, 2L), "bytes");
+        assertThat(bufferedBytes()).isZero();
+    }
+
+    private List<IndexingPipeline.Outcome> index(IndexingPipeline.BatchItem... items) throws Exception {
+        return pipeline.indexBatch(List.of(items)).get(10, TimeUnit.SECONDS);
+    }
+
+    private double bufferedBytes() {
+        return meterRegistry.get("indexer.pipeline.buffered").gauge().value();
+    }
+
+    private static IndexingPipeline.BatchItem item(long documentId, boolean finalAttempt) {
+        DocumentIndexMessage message = new DocumentIndexMessage();
+        message.setDocumentId(documentId);
+        message.setFilePath("/files/" + documentId);
+        return new IndexingPipeline.BatchItem(message, finalAttempt);
+    }
+
+    private static Document document(Long id, Long fileSize) {
+        Document document = new Document();
+        document.setId(id);
+        document.setFileSize(fileSize);
+        return document;
+    }
+}
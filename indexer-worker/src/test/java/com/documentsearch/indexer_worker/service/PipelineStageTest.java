@@ -0,0 +1,74 @@
+package com.documentsearch.indexer_worker.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PipelineStageTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PipelineStage stage = new PipelineStage("test", 1, 1, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        stage.shutdown();
+    }
+
+    @Test
+    void submitBlocksWhileTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<String> first = stage.submit(() -> {
+            running.countDown();
+            release.await();
+            return "first";
+        });
+        running.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> second = stage.submit(() -> "second");
+        assertThat(gauge("indexer.pipeline.queue.depth")).isEqualTo(1);
+        assertThat(gauge("indexer.pipeline.active")).isEqualTo(1);
+
+        // The worker is busy and the queue holds one task, so the third submitter waits
+        CompletableFuture<CompletableFuture<String>> third = CompletableFuture.supplyAsync(() -> stage.submit(() -> "third"));
+        assertThatThrownBy(() -> third.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        release.countDown();
+        assertThat(third.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)).isEqualTo("third");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+        assertThat(meterRegistry.get("indexer.pipeline.latency").tag("stage", "test").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void failedTaskCompletesItsFutureAndTheStageGoesOn() throws Exception {
+        CompletableFuture<String> failed = stage.submit(() -> {
+            throw new IllegalStateException("parse error");
+        });
+
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(stage.submit(() -> "next").get(5, TimeUnit.SECONDS)).isEqualTo("next");
+    }
+
+    @Test
+    void rejectsTasksOnceShutDown() {
+        stage.shutdown();
+
+        assertThatThrownBy(() -> stage.submit(() -> "late")).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("stage", "test").gauge().value();
+    }
+}
@@ -0,0 +1,81 @@
+package com.documentsearch.shared_models.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encoding of a blob on disk. Blobs are always addressed by the digest of their decoded content.
+ */
+public enum BlobCodec {
+
+    NONE(""),
+
+    /** zlib stream at the fastest level; cheap enough to apply on the upload path */
+    DEFLATE(".deflate");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String fileSuffix;
+
+    BlobCodec(String fileSuffix) {
+        this.fileSuffix = fileSuffix;
+    }
+
+    public String fileSuffix() {
+        return fileSuffix;
+    }
+
+    /**
+     * Wrap a stream so that what is written to it is stored in this encoding
+     */
+    public OutputStream encode(OutputStream out) {
+        if (this == NONE) {
+            return out;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // A Deflater passed in is not released by DeflaterOutputStream
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Wrap a stream of stored bytes so that reading it yields the original content
+     */
+    public InputStream decode(InputStream in) {
+        return this == NONE ? in : new InflaterInputStream(in);
+    }
+
+    /**
+     * Bytes this codec would produce for a sample, used to decide whether encoding pays off
+     */
+    public int encodedSize(byte[] sample, int length) {
+        if (this == NONE) {
+            return length;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(sample, 0, length);
+            deflater.finish();
+            byte[] scratch = new byte[BUFFER_SIZE];
+            int size = 0;
+            while (!deflater.finished()) {
+                size += deflater.deflate(scratch);
+            }
+            return size;
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.documentsearch.shared_models.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Content-addressed blob storage shared by the services that write and read document files.
+ * Blobs are keyed by the hex SHA-256 of their content, so identical content is stored once.
+ */
+public interface BlobStore {
+
+    /**
+     * Store content, hashing it on the way in and encoding it with the given codec
+     */
+    StoredBlob put(InputStream content, BlobCodec codec) throws IOException;
+
+    /**
+     * Move an already written local file (e.g. an assembled chunked upload) into the store,
+     * encoding it with the given codec. Calling this again for a file that is already in place
+     * is a no-op.
+     */
+    StoredBlob putFile(Path file, BlobCodec codec) throws IOException;
+
+    /**
+     * Open a stored blob for reading. The stream yields the original content whatever codec
+     * the blob is stored with, decoding as it is read.
+     *
+     * @throws java.nio.file.NoSuchFileException if no blob has this digest
+     */
+    InputStream open(String digest) throws IOException;
+
+    boolean exists(String digest);
+
+    /**
+     * Where the blob with this digest is kept, as recorded in documents.filePath
+     */
+    String location(String digest);
+
+    /**
+     * The local file holding the stored (possibly encoded) bytes, for stores that keep blobs on
+     * a filesystem; lets callers hand the file to the OS for zero-copy transfer
+     */
+    default Optional<Path> localFile(String digest) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,13 @@
+package com.documentsearch.shared_models.storage;
+
+/**
+ * How much LocalBlobStore forces to disk before a write is reported as stored
+ */
+public enum FsyncPolicy {
+    /** Leave flushing to the OS; a crash can lose recently stored blobs */
+    NONE,
+    /** Force the file contents before it is renamed into place */
+    FILE,
+    /** Also force the shard directory after the rename, so the new entry survives a crash */
+    FILE_AND_DIRECTORY
+}
@@ -0,0 +1,255 @@
+package com.documentsearch.shared_models.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * BlobStore on the local filesystem (or a shared volume).
+ *
+ * Blobs are sharded by digest prefix into nested directories, two hex characters per level:
+ * with shardDepth 2 a blob lives at blobs/ab/cd/abcd..., so every directory above the blobs
+ * has at most 256 entries. Encoded blobs carry the codec's suffix (abcd....deflate). Content
+ * is written to tmp/ first and renamed into place atomically; readers never see a partially
+ * written blob.
+ */
+@Slf4j
+public class LocalBlobStore implements BlobStore {
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_SHARD_DEPTH = 4;
+
+    private final Path blobRoot;
+    private final Path tempDirectory;
+    private final int shardDepth;
+    private final FsyncPolicy fsyncPolicy;
+
+    public LocalBlobStore(Path root, int shardDepth, FsyncPolicy fsyncPolicy) {
+        if (shardDepth < 1 || shardDepth > MAX_SHARD_DEPTH) {
+            throw new IllegalArgumentException("Shard depth must be between 1 and " + MAX_SHARD_DEPTH);
+        }
+        this.blobRoot = root.resolve("blobs").toAbsolutePath().normalize();
+        this.tempDirectory = root.resolve("tmp").toAbsolutePath().normalize();
+        this.shardDepth = shardDepth;
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    @Override
+    public StoredBlob put(InputStream content, BlobCodec codec) throws IOException {
+        Path tempFile = tempFile();
+        MessageDigest digest = sha256();
+        long size = 0;
+        try {
+            try (OutputStream out = codec.encode(Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW))) {
+                byte[] buffer = new byte[IO_BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                forceFile(tempFile);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return moveIntoPlace(tempFile, HexFormat.of().formatHex(digest.digest()), size, codec);
+    }
+
+    @Override
+    public StoredBlob putFile(Path file, BlobCodec codec) throws IOException {
+        Path source = file.toAbsolutePath().normalize();
+        if (source.startsWith(blobRoot)) {
+            return existingBlob(source);
+        }
+
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (InputStream in = Files.newInputStream(source)) {
+            byte[] buffer = new byte[IO_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                size += read;
+            }
+        }
+        String hex = HexFormat.of().formatHex(digest.digest());
+
+        if (codec != BlobCodec.NONE && find(hex) == null) {
+            // Write an encoded copy and store that instead of the original file
+            Path tempFile = tempFile();
+            try {
+                try (InputStream in = Files.newInputStream(source);
+                     OutputStream out = codec.encode(Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW))) {
+                    in.transferTo(out);
+                }
+                if (fsyncPolicy != FsyncPolicy.NONE) {
+                    forceFile(tempFile);
+                }
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(tempFile);
+                throw e;
+            }
+            StoredBlob blob = moveIntoPlace(tempFile, hex, size, codec);
+            Files.delete(source);
+            return blob;
+        }
+
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            forceFile(source);
+        }
+        return moveIntoPlace(source, hex, size, BlobCodec.NONE);
+    }
+
+    @Override
+    public InputStream open(String digest) throws IOException {
+        for (BlobCodec codec : BlobCodec.values()) {
+            Path path = path(digest, codec);
+            if (Files.exists(path)) {
+                InputStream in = new BufferedInputStream(Files.newInputStream(path), IO_BUFFER_SIZE);
+                return codec.decode(in);
+            }
+        }
+        throw new NoSuchFileException(path(digest, BlobCodec.NONE).toString());
+    }
+
+    @Override
+    public boolean exists(String digest) {
+        return find(digest) != null;
+    }
+
+    @Override
+    public String location(String digest) {
+        BlobCodec codec = find(digest);
+        return path(digest, codec != null ? codec : BlobCodec.NONE).toString();
+    }
+
+    @Override
+    public Optional<Path> localFile(String digest) {
+        BlobCodec codec = find(digest);
+        return codec != null ? Optional.of(path(digest, codec)) : Optional.empty();
+    }
+
+    /**
+     * Absolute path of the blob with this digest when stored with the given codec
+     */
+    public Path path(String digest, BlobCodec codec) {
+        if (digest == null || digest.length() < 2 * shardDepth || !digest.matches("[0-9a-f]+")) {
+            throw new IllegalArgumentException("Not a hex digest: " + digest);
+        }
+        Path directory = blobRoot;
+        for (int level = 0; level < shardDepth; level++) {
+            directory = directory.resolve(digest.substring(2 * level, 2 * level + 2));
+        }
+        return directory.resolve(digest + codec.fileSuffix());
+    }
+
+    /**
+     * Codec of the stored copy of a blob, or null if it is not stored
+     */
+    private BlobCodec find(String digest) {
+        for (BlobCodec codec : BlobCodec.values()) {
+            if (Files.exists(path(digest, codec))) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    private StoredBlob moveIntoPlace(Path source, String digest, long size, BlobCodec codec) throws IOException {
+        BlobCodec existing = find(digest);
+        if (existing != null) {
+            Files.delete(source);
+            log.debug("Blob {} already stored, discarded duplicate content", digest);
+            return storedCopy(digest, size, existing);
+        }
+
+        Path target = path(digest, codec);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Same content stored concurrently; both copies are identical
+            Files.deleteIfExists(source);
+            return storedCopy(digest, size, codec);
+        }
+        if (fsyncPolicy == FsyncPolicy.FILE_AND_DIRECTORY) {
+            forceDirectory(target.getParent());
+        }
+        long storedSize = Files.size(target);
+        log.info("Stored blob {} ({} bytes, {} bytes as {})", digest, size, storedSize, codec);
+        return new StoredBlob(digest, target.toString(), size, storedSize, codec, false);
+    }
+
+    private StoredBlob storedCopy(String digest, long size, BlobCodec codec) throws IOException {
+        Path path = path(digest, codec);
+        return new StoredBlob(digest, path.toString(), size, Files.size(path), codec, true);
+    }
+
+    /**
+     * Describe a file that is already a stored blob, from its name; the original size is
+     * measured by decoding it
+     */
+    private StoredBlob existingBlob(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        for (BlobCodec codec : BlobCodec.values()) {
+            if (codec == BlobCodec.NONE || !name.endsWith(codec.fileSuffix())) {
+                continue;
+            }
+            String digest = name.substring(0, name.length() - codec.fileSuffix().length());
+            long size;
+            try (InputStream in = codec.decode(new BufferedInputStream(Files.newInputStream(path), IO_BUFFER_SIZE))) {
+                size = in.transferTo(OutputStream.nullOutputStream());
+            }
+            return new StoredBlob(digest, path.toString(), size, Files.size(path), codec, true);
+        }
+        long size = Files.size(path);
+        return new StoredBlob(name, path.toString(), size, size, BlobCodec.NONE, true);
+    }
+
+    private Path tempFile() throws IOException {
+        Files.createDirectories(tempDirectory);
+        return tempDirectory.resolve(UUID.randomUUID() + ".tmp");
+    }
+
+    private void forceFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform allows opening a directory; the file itself is already durable
+            log.debug("Could not fsync directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
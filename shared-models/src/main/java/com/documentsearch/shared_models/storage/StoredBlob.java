@@ -0,0 +1,10 @@
+package com.documentsearch.shared_models.storage;
+
+/**
+ * A blob in a BlobStore: its digest and location, the size of the original content and the
+ * size and codec it is stored with. alreadyStored is set when identical content was in the
+ * store before this write, in which case codec and storedSize describe the existing copy.
+ */
+public record StoredBlob(String digest, String location, long size, long storedSize, BlobCodec codec,
+                         boolean alreadyStored) {
+}